@@ -0,0 +1,84 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import board.Board;
+import exceptions.InvalidFenException;
+import location.Location;
+
+/**
+ * Class BoardBenchmark, part of package benchmarks
+ * Path checks and text rendering of a middlegame position
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    private Board board;
+
+    // slides of the white bishop on c4, a free and a blocked one in both directions
+    private Location bishop;
+    private Location freeDiagonalTo, blockedDiagonalTo;
+    private Location freeAntidiagonalTo, blockedAntidiagonalTo;
+
+    @Setup
+    public void setUp() throws InvalidFenException {
+
+        this.board = new Board(Positions.MIDDLEGAME);
+
+        this.bishop = Location.of("c4");
+
+        this.freeDiagonalTo = Location.of("e6");
+        // blocked by the pawn on f7
+        this.blockedDiagonalTo = Location.of("g8");
+
+        this.freeAntidiagonalTo = Location.of("a6");
+        // blocked by the pawn on d3
+        this.blockedAntidiagonalTo = Location.of("e2");
+    }
+
+    @Benchmark
+    public boolean freeDiagonalPath() {
+
+        return this.board.freeDiagonalPath(this.bishop, this.freeDiagonalTo);
+    }
+
+    @Benchmark
+    public boolean blockedDiagonalPath() {
+
+        return this.board.freeDiagonalPath(this.bishop, this.blockedDiagonalTo);
+    }
+
+    @Benchmark
+    public boolean freeAntidiagonalPath() {
+
+        return this.board.freeAntidiagonalPath(this.bishop, this.freeAntidiagonalTo);
+    }
+
+    @Benchmark
+    public boolean blockedAntidiagonalPath() {
+
+        return this.board.freeAntidiagonalPath(this.bishop, this.blockedAntidiagonalTo);
+    }
+
+    @Benchmark
+    public String boardToString() {
+
+        return this.board.toString();
+    }
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import board.Board;
+import exceptions.GameoverException;
+import exceptions.InvalidLocationException;
+import exceptions.InvalidMoveException;
+import exceptions.NoInputGivenException;
+import game.Game;
+
+/**
+ * Class GameReplayBenchmark, part of package benchmarks
+ * Replays a whole game as typed moves through Game.submitMove, the same input path as the console
+ * game, including the move text checks, the piece rules and the game over checks
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameReplayBenchmark {
+
+    @Benchmark
+    public Game replayOperaGame()
+            throws InvalidLocationException, InvalidMoveException, NoInputGivenException, GameoverException {
+
+        Game game = new Game(new Board());
+
+        for (String move : Positions.OPERA_GAME) {
+            game.submitMove(move);
+        }
+
+        return game;
+    }
+}
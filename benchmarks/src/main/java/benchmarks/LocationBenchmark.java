@@ -0,0 +1,48 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import location.Location;
+
+/**
+ * Class LocationBenchmark, part of package benchmarks
+ * Parsing of the 64 square names, one operation parses all of them
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationBenchmark {
+
+    private final String[] names = new String[64];
+
+    @Setup
+    public void setUp() {
+
+        for (int square = 0; square < 64; square++) {
+            this.names[square] = "" + "abcdefgh".charAt(square & 7) + (char) ('1' + (square >>> 3));
+        }
+    }
+
+    @Benchmark
+    public void parseAllSquares(Blackhole blackhole) {
+
+        for (String name : this.names) {
+            blackhole.consume(Location.of(name));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import board.Board;
+import exceptions.InvalidFenException;
+import exceptions.InvalidMoveException;
+import location.Location;
+import piece.Piece;
+
+/**
+ * Class PieceBenchmark, part of package benchmarks
+ * Move validation and path generation of every piece type, one quiet move per type
+ * every moveTo is taken back with unmakeMove so each call starts from the same position
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceBenchmark {
+
+    // piece type and its move in the middlegame position, from and to squares
+    @Param({ "pawn:h2h3", "knight:f3h4", "bishop:c1e3", "rook:h1f1", "queen:d1e2", "king:e1f1" })
+    public String pieceMove;
+
+    private Board board;
+
+    private Location from;
+    private Location to;
+
+    @Setup
+    public void setUp() throws InvalidFenException {
+
+        this.board = new Board(Positions.MIDDLEGAME);
+
+        String move = this.pieceMove.substring(this.pieceMove.indexOf(':') + 1);
+
+        this.from = Location.of(move, 0);
+        this.to = Location.of(move, 2);
+    }
+
+    @Benchmark
+    public Board moveTo() throws InvalidMoveException {
+
+        Piece piece = this.board.getPieceAt(this.from);
+
+        piece.moveTo(this.to);
+        this.board.unmakeMove();
+
+        return this.board;
+    }
+
+    @Benchmark
+    public List<Location> generatePath() {
+
+        return this.board.getPieceAt(this.from).generatePath();
+    }
+}
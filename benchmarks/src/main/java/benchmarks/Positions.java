@@ -0,0 +1,19 @@
+package benchmarks;
+
+/**
+ * Class Positions, part of package benchmarks
+ * Positions and games shared by the benchmarks
+ */
+final class Positions {
+
+    // Italian game after 8 moves, every piece type of both colors can make a quiet move
+    static final String MIDDLEGAME = "r1bq1rk1/pppp1ppp/2n2n2/2b1p3/2B1P3/2NP1N2/PPP2PPP/R1BQK2R w KQ - 0 6";
+
+    // the Opera game, Morphy against Duke Karl and Count Isouard, Paris 1858, ends in mate
+    static final String[] OPERA_GAME = { "e2e4", "e7e5", "g1f3", "d7d6", "d2d4", "c8g4", "d4e5", "g4f3", "d1f3",
+            "d6e5", "f1c4", "g8f6", "f3b3", "d8e7", "b1c3", "c7c6", "c1g5", "b7b5", "c3b5", "c6b5", "c4b5", "b8d7",
+            "e1c1", "a8d8", "d1d7", "d8d7", "h1d1", "e7e6", "b5d7", "f6d7", "b3b8", "d7b8", "d1d8" };
+
+    private Positions() {
+    }
+}
@@ -1,12 +1,57 @@
 // import enums.*;
+import java.nio.file.Paths;
+
 import board.Board;
+import book.OpeningBook;
+import engine.SearchLimits;
+import enums.Color;
+import enums.RenderMode;
 import game.Game;
+import tablebase.Tablebase;
+import uci.UciEngine;
 
 public class Main {
+
+    // time the engine gets per move when none is given
+    private static final long defaultEngineMoveTime = 2000;
+
+    // threads the engine searches with when none are given
+    private static final int defaultEngineThreads = Runtime.getRuntime().availableProcessors();
+
     public static void main(String[] args) throws Exception {
 
+        // java Main uci, plays through a chess GUI instead of the console
+        if (args.length >= 1 && args[0].equals("uci")) {
+
+            UciEngine.main(args);
+            return;
+        }
+
         Board gameBoard = new Board();
-        Game game = new Game(gameBoard);
+        Game game;
+
+        // java Main engine <white|black> [move time in milliseconds] [threads] [opening book] [tablebase directory]
+        if (args.length >= 2 && args[0].equals("engine")) {
+
+            Color engineColor = args[1].equalsIgnoreCase("white") ? Color.WHITE : Color.BLACK;
+            long moveTime = (args.length >= 3) ? Long.parseLong(args[2]) : defaultEngineMoveTime;
+            int threads = (args.length >= 4) ? Integer.parseInt(args[3]) : defaultEngineThreads;
+
+            game = new Game(gameBoard, engineColor, SearchLimits.moveTime(moveTime), threads);
+
+            if (args.length >= 5)
+                game.setOpeningBook(new OpeningBook(Paths.get(args[4])));
+
+            if (args.length >= 6)
+                game.setTablebase(new Tablebase(Paths.get(args[5]), Tablebase.DEFAULT_CACHE_BLOCKS));
+        } else {
+
+            game = new Game(gameBoard);
+        }
+
+        // java -Drender=diff Main redraws only the changed squares, -Drender=off prints no board
+        game.setRenderMode(RenderMode.fromName(System.getProperty("render", "full")));
+
         game.play();
     }
 }
@@ -0,0 +1,239 @@
+package archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import board.Board;
+import board.Move;
+import board.Pieces;
+import exceptions.InvalidFenException;
+import exceptions.InvalidMoveException;
+
+/**
+ * Class MoveArchive, part of package archive
+ * Read only view of a binary save file, written by class MoveArchiveWriter
+ * the file is memory mapped, every game and every ply is found from the index
+ * in constant time without reading the games before it
+ *
+ * layout, all numbers big endian:
+ * header   int magic, short version, short reserved, int game count, long index offset
+ * game     short FEN length (0 for the starting position), FEN bytes, int ply count,
+ *          one short packed move (see class Move) per ply
+ * index    one long offset per game
+ */
+public class MoveArchive implements Closeable {
+
+    public static final String EXTENSION = ".bin";
+
+    static final int MAGIC = 0x43434D41;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 20;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private final int gameCount;
+    private final int indexOffset;
+
+    /**
+     * Opens and maps an archive, a single mapping limits the file to 2 GB
+     *
+     * @param path archive file
+     * @throws IOException if the file cannot be read or is not an archive
+     */
+    public MoveArchive(Path path) throws IOException {
+
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        long size = this.channel.size();
+
+        if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+
+            this.channel.close();
+            throw new IOException("Not a move archive or larger than 2 GB: " + path);
+        }
+
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+        long index = this.buffer.getLong(12);
+
+        if (this.buffer.getInt(0) != MAGIC || this.buffer.getShort(4) != VERSION || index < HEADER_SIZE
+                || this.buffer.getInt(8) < 0 || index + ((long) this.buffer.getInt(8) * Long.BYTES) > size) {
+
+            this.channel.close();
+            throw new IOException("Not a move archive or unsupported version: " + path);
+        }
+
+        this.gameCount = this.buffer.getInt(8);
+        this.indexOffset = (int) index;
+    }
+
+    public int getGameCount() {
+
+        return this.gameCount;
+    }
+
+    /**
+     * @param game number of the game, from 0
+     * @return the number of plies of the game
+     */
+    public int getPlyCount(int game) {
+
+        int offset = this.gameOffset(game);
+
+        return this.plyCount(game, offset + 6 + this.fenLength(game, offset));
+    }
+
+    /**
+     * @param game number of the game, from 0
+     * @param ply  number of the ply, from 0
+     * @return the packed move played at the ply
+     */
+    public int getMove(int game, int ply) {
+
+        int offset = this.gameOffset(game);
+        int movesOffset = offset + 6 + this.fenLength(game, offset);
+
+        if (ply < 0 || ply >= this.plyCount(game, movesOffset))
+            throw new IndexOutOfBoundsException("Ply " + ply + " of game " + game);
+
+        return this.buffer.getShort(movesOffset + (ply * 2)) & 0xFFFF;
+    }
+
+    /**
+     * @param game number of the game, from 0
+     * @return the starting position of the game in FEN, null for the standard starting position
+     */
+    public String getStartingFen(int game) {
+
+        int offset = this.gameOffset(game);
+        int length = this.fenLength(game, offset);
+
+        if (length == 0)
+            return null;
+
+        byte[] fen = new byte[length];
+
+        this.buffer.get(offset + 2, fen);
+
+        return new String(fen, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Sets up a board with the position of a game after a number of plies
+     * the moves are played with makeMove so they can be taken back
+     *
+     * @param game  number of the game, from 0
+     * @param plies number of plies to play, at most the ply count of the game
+     * @param board board receiving the position
+     * @throws InvalidFenException  if the stored starting position is invalid
+     * @throws InvalidMoveException if a stored move is illegal in its position
+     */
+    public void replay(int game, int plies, Board board) throws InvalidFenException, InvalidMoveException {
+
+        String fen = this.getStartingFen(game);
+
+        if (fen != null)
+            board.loadFen(fen);
+        else
+            board.init();
+
+        for (int ply = 0; ply < plies; ply++) {
+
+            int stored = this.getMove(game, ply);
+
+            // moves of the piece rules only carry quiet and capture flags, the board finds the full move
+            int move = board.findLegalMove(Move.from(stored), Move.to(stored),
+                    Move.isPromotion(stored) ? Move.promotionType(stored) : Pieces.QUEEN);
+
+            if (move == Move.NONE)
+                throw new InvalidMoveException("Illegal move " + Move.toString(stored) + " at ply " + (ply + 1)
+                        + " of game " + game + " after " + board.toFen());
+
+            board.makeMove(move);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        this.channel.close();
+    }
+
+    private int gameOffset(int game) {
+
+        if (game < 0 || game >= this.gameCount)
+            throw new IndexOutOfBoundsException("Game " + game + " of " + this.gameCount);
+
+        long offset = this.buffer.getLong(this.indexOffset + (game * Long.BYTES));
+
+        if (offset < HEADER_SIZE || offset > this.indexOffset)
+            throw new IndexOutOfBoundsException("Offset " + offset + " of game " + game);
+
+        return (int) offset;
+    }
+
+    // a corrupt length would otherwise turn into a negative array size or offset
+    private int fenLength(int game, int offset) {
+
+        int length = this.buffer.getShort(offset);
+
+        if (length < 0)
+            throw new IndexOutOfBoundsException("FEN length " + length + " of game " + game);
+
+        return length;
+    }
+
+    // a negative count would make a corrupt game look like one without moves
+    private int plyCount(int game, int movesOffset) {
+
+        int plies = this.buffer.getInt(movesOffset - 4);
+
+        if (plies < 0)
+            throw new IndexOutOfBoundsException("Ply count " + plies + " of game " + game);
+
+        return plies;
+    }
+
+    /**
+     * Command line entry point, prints the games of an archive or the position of one game after a ply
+     * java archive.MoveArchive file.bin [game [ply]]
+     */
+    public static void main(String[] args) throws IOException, InvalidFenException, InvalidMoveException {
+
+        if (args.length == 0) {
+
+            System.out.println("Usage: java archive.MoveArchive <archive> [game [ply]]");
+            return;
+        }
+
+        try (MoveArchive archive = new MoveArchive(Paths.get(args[0]))) {
+
+            if (args.length == 1) {
+
+                System.out.println("Games: " + archive.getGameCount());
+
+                for (int game = 0; game < archive.getGameCount(); game++) {
+                    System.out.println("Game " + game + ": " + archive.getPlyCount(game) + " plies");
+                }
+
+                return;
+            }
+
+            int game = Integer.parseInt(args[1]);
+            int plies = (args.length > 2) ? Integer.parseInt(args[2]) : archive.getPlyCount(game);
+
+            Board board = new Board();
+
+            archive.replay(game, plies, board);
+
+            System.out.println(board.toFen());
+        }
+    }
+}
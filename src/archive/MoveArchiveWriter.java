@@ -0,0 +1,152 @@
+package archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import board.Board;
+
+/**
+ * Class MoveArchiveWriter, part of package archive
+ * Writes games in the binary format read by class MoveArchive
+ * games are appended through one buffer, the index and the header are written on close
+ */
+public class MoveArchiveWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    // file offset of every game written so far
+    private long[] offsets = new long[64];
+    private int gameCount;
+
+    // file offset of the first byte in the buffer
+    private long bufferStart = MoveArchive.HEADER_SIZE;
+
+    /**
+     * Creates the archive, an existing file is overwritten
+     *
+     * @param path archive file
+     * @throws IOException if the file cannot be created
+     */
+    public MoveArchiveWriter(Path path) throws IOException {
+
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        this.channel.position(MoveArchive.HEADER_SIZE);
+    }
+
+    /**
+     * Appends a game
+     *
+     * @param startingFen starting position of the game, null for the standard starting position
+     * @param moves       packed moves of the game, see class Move
+     * @param count       number of moves to write
+     * @throws IOException if the file cannot be written
+     */
+    public void addGame(String startingFen, int[] moves, int count) throws IOException {
+
+        byte[] fen = (startingFen == null) ? new byte[0] : startingFen.getBytes(StandardCharsets.US_ASCII);
+
+        if (this.gameCount == this.offsets.length)
+            this.offsets = Arrays.copyOf(this.offsets, this.gameCount * 2);
+
+        this.offsets[this.gameCount++] = this.bufferStart + this.buffer.position();
+
+        this.ensureRoom(2 + fen.length + 4);
+
+        this.buffer.putShort((short) fen.length);
+        this.buffer.put(fen);
+        this.buffer.putInt(count);
+
+        for (int i = 0; i < count; i++) {
+
+            this.ensureRoom(2);
+            this.buffer.putShort((short) moves[i]);
+        }
+    }
+
+    /**
+     * Appends the moves played on a board since its position was set up
+     *
+     * @param startingFen position the board was set up with, null for the standard starting position
+     * @param board       board holding the moves
+     * @throws IOException if the file cannot be written
+     */
+    public void addGame(String startingFen, Board board) throws IOException {
+
+        int[] moves = new int[board.getUndoSize()];
+
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = board.getMove(i);
+        }
+
+        this.addGame(startingFen, moves, moves.length);
+    }
+
+    /**
+     * Writes the index and the header and closes the file
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+
+        try {
+
+            long indexOffset = this.bufferStart + this.buffer.position();
+
+            for (int i = 0; i < this.gameCount; i++) {
+
+                this.ensureRoom(Long.BYTES);
+                this.buffer.putLong(this.offsets[i]);
+            }
+
+            this.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(MoveArchive.HEADER_SIZE);
+
+            header.putInt(MoveArchive.MAGIC);
+            header.putShort(MoveArchive.VERSION);
+            header.putShort((short) 0);
+            header.putInt(this.gameCount);
+            header.putLong(indexOffset);
+            header.flip();
+
+            while (header.hasRemaining()) {
+                this.channel.write(header, header.position());
+            }
+        } finally {
+
+            this.channel.close();
+        }
+    }
+
+    private void ensureRoom(int bytes) throws IOException {
+
+        if (this.buffer.remaining() < bytes)
+            this.flush();
+    }
+
+    private void flush() throws IOException {
+
+        this.buffer.flip();
+
+        this.bufferStart += this.buffer.remaining();
+
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+
+        this.buffer.clear();
+    }
+}
@@ -0,0 +1,304 @@
+package batch;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import board.Board;
+import board.Move;
+import engine.ParallelSearch;
+import engine.SearchLimits;
+import engine.TranspositionTable;
+import enums.Color;
+import enums.GameStatus;
+import enums.PlayerType;
+import exceptions.GameoverException;
+import exceptions.InvalidMoveException;
+import game.Game;
+
+/**
+ * Class GameRunner, part of package batch
+ * Plays many games at the same time without the console, for load and soak tests of the game
+ * every thread plays whole games one after the other through the programmatic Game API,
+ * engine games start with a few random plies so they do not all repeat the same moves
+ */
+public class GameRunner {
+
+    public static final int DEFAULT_MAX_PLIES = 400;
+
+    public static final int DEFAULT_ENGINE_DEPTH = 3;
+
+    // random plies at the start of every engine game
+    public static final int RANDOM_OPENING_PLIES = 4;
+
+    // transposition table of the engine of every thread
+    private static final int ENGINE_TABLE_MB = 4;
+
+    private final int threads;
+    private final PlayerType players;
+    private final SearchLimits engineLimits;
+    private final int maxPlies;
+    private final long seed;
+
+    /**
+     * Constructor of a runner
+     *
+     * @param threads      number of games played at the same time, at least 1
+     * @param players      who plays both colors of every game
+     * @param engineLimits budget of every engine move, unused for random games
+     * @param maxPlies     plies after which a game is stopped unfinished
+     * @param seed         seed of the random moves, the same seed plays the same random games
+     */
+    public GameRunner(int threads, PlayerType players, SearchLimits engineLimits, int maxPlies, long seed) {
+
+        this.threads = Math.max(1, threads);
+        this.players = players;
+        this.engineLimits = engineLimits;
+        this.maxPlies = maxPlies;
+        this.seed = seed;
+    }
+
+    /**
+     * Plays the games and waits for all of them
+     *
+     * @param games number of games to play
+     * @return the outcomes and the speed of the games
+     */
+    public Report run(int games) {
+
+        AtomicInteger nextGame = new AtomicInteger();
+        Counters counters = new Counters();
+
+        ExecutorService pool = Executors.newFixedThreadPool(this.threads, runnable -> {
+
+            Thread thread = new Thread(runnable, "game-runner");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        long start = System.nanoTime();
+
+        try {
+
+            List<Future<?>> workers = new ArrayList<Future<?>>(this.threads);
+
+            for (int i = 0; i < this.threads; i++) {
+                workers.add(pool.submit(() -> this.playGames(games, nextGame, counters)));
+            }
+
+            for (Future<?> worker : workers) {
+
+                try {
+
+                    worker.get();
+                } catch (InterruptedException interrupted) {
+
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException failure) {
+
+                    throw new IllegalStateException("Game runner thread failed", failure.getCause());
+                }
+            }
+        } finally {
+
+            pool.shutdownNow();
+        }
+
+        return new Report(games, counters, System.nanoTime() - start);
+    }
+
+    // runs on a pool thread, takes game numbers until every game is played
+    private void playGames(int games, AtomicInteger nextGame, Counters counters) {
+
+        ParallelSearch engine = null;
+
+        if (this.players == PlayerType.ENGINE)
+            engine = new ParallelSearch(1, new TranspositionTable(ENGINE_TABLE_MB));
+
+        int[] moves = new int[Move.MAX_MOVES];
+
+        try {
+
+            for (int number = nextGame.getAndIncrement(); number < games; number = nextGame.getAndIncrement()) {
+
+                Random random = new Random(this.seed + number);
+
+                Game game = new Game(new Board());
+
+                if (engine != null)
+                    game.setEngine(engine, this.engineLimits);
+
+                GameStatus status = this.playGame(game, random, moves);
+
+                counters.record(game, status);
+            }
+        } finally {
+
+            if (engine != null)
+                engine.shutdown();
+        }
+    }
+
+    private GameStatus playGame(Game game, Random random, int[] moves) {
+
+        GameStatus status = game.getStatus();
+
+        try {
+
+            while (status.isOver() == false && game.getPlyCount() < this.maxPlies) {
+
+                if (this.players == PlayerType.RANDOM || game.getPlyCount() < RANDOM_OPENING_PLIES) {
+
+                    int count = game.getLegalMoves(moves);
+
+                    game.submitMove(moves[random.nextInt(count)]);
+                } else {
+
+                    game.playEngineMove();
+                }
+
+                status = game.getStatus();
+            }
+        } catch (InvalidMoveException | GameoverException unexpected) {
+
+            // only legal moves of running games are played
+            throw new IllegalStateException(unexpected.getMessage().trim(), unexpected);
+        }
+
+        return status;
+    }
+
+    /**
+     * Totals updated by all runner threads
+     */
+    private static final class Counters {
+
+        final AtomicLongArray statuses = new AtomicLongArray(GameStatus.values().length);
+        final LongAdder whiteWins = new LongAdder();
+        final LongAdder blackWins = new LongAdder();
+        final LongAdder plies = new LongAdder();
+
+        void record(Game game, GameStatus status) {
+
+            this.statuses.incrementAndGet(status.ordinal());
+            this.plies.add(game.getPlyCount());
+
+            // the mated side is the one to play
+            if (status == GameStatus.CHECKMATE) {
+
+                if (game.getPlayingColor() == Color.WHITE)
+                    this.blackWins.increment();
+                else
+                    this.whiteWins.increment();
+            }
+        }
+    }
+
+    /**
+     * Class Report, outcomes and speed of a run
+     */
+    public static class Report {
+
+        public final int games;
+        public final long plies;
+        public final long whiteWins;
+        public final long blackWins;
+        public final long elapsedNanos;
+
+        // games per end of game, by GameStatus ordinal, IN_PROGRESS counts the games stopped unfinished
+        private final long[] statuses;
+
+        Report(int games, Counters counters, long elapsedNanos) {
+
+            this.games = games;
+            this.plies = counters.plies.sum();
+            this.whiteWins = counters.whiteWins.sum();
+            this.blackWins = counters.blackWins.sum();
+            this.elapsedNanos = elapsedNanos;
+
+            this.statuses = new long[counters.statuses.length()];
+
+            for (int i = 0; i < this.statuses.length; i++) {
+                this.statuses[i] = counters.statuses.get(i);
+            }
+        }
+
+        /**
+         * @param status how a game ended, IN_PROGRESS for the games stopped unfinished
+         * @return the number of games that ended so
+         */
+        public long getCount(GameStatus status) {
+
+            return this.statuses[status.ordinal()];
+        }
+
+        public double gamesPerSecond() {
+
+            return this.games * 1e9 / Math.max(1, this.elapsedNanos);
+        }
+
+        public double movesPerSecond() {
+
+            return this.plies * 1e9 / Math.max(1, this.elapsedNanos);
+        }
+
+        /**
+         * Writes the outcomes and the speed of the run
+         *
+         * @param out stream receiving the report
+         */
+        public void print(PrintStream out) {
+
+            out.println("Games: " + this.games + ", white wins " + this.whiteWins + ", black wins " + this.blackWins);
+
+            for (GameStatus status : GameStatus.values()) {
+
+                String name = (status == GameStatus.IN_PROGRESS) ? "UNFINISHED" : status.name();
+
+                out.println("  " + name + ": " + this.getCount(status));
+            }
+
+            out.println("Plies: " + this.plies);
+            out.println("Time: " + (this.elapsedNanos / 1_000_000) + " ms, "
+                    + String.format("%.1f", this.gamesPerSecond()) + " games/s, "
+                    + String.format("%.0f", this.movesPerSecond()) + " moves/s");
+        }
+    }
+
+    private static void printUsage() {
+
+        System.out.println("Usage: java batch.GameRunner <games> [engine|random] [threads] [engine depth] [max plies]");
+    }
+
+    /**
+     * Command line entry point
+     */
+    public static void main(String[] args) {
+
+        if (args.length == 0) {
+
+            printUsage();
+            return;
+        }
+
+        int games = Integer.parseInt(args[0]);
+        PlayerType players = (args.length > 1 && args[1].equalsIgnoreCase("engine")) ? PlayerType.ENGINE
+                : PlayerType.RANDOM;
+        int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int depth = (args.length > 3) ? Integer.parseInt(args[3]) : DEFAULT_ENGINE_DEPTH;
+        int maxPlies = (args.length > 4) ? Integer.parseInt(args[4]) : DEFAULT_MAX_PLIES;
+
+        GameRunner runner = new GameRunner(threads, players, SearchLimits.depth(depth), maxPlies, System.nanoTime());
+
+        runner.run(games).print(System.out);
+    }
+}
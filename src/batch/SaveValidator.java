@@ -0,0 +1,477 @@
+package batch;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import archive.MoveArchive;
+import board.Board;
+import board.Move;
+import board.Pieces;
+import exceptions.InvalidFenException;
+
+/**
+ * Class SaveValidator, part of package batch
+ * Replays every save file of a directory without the interactive game
+ * a text save (.txt) holds one "e2, e4" move per line, optionally after a FEN line with the starting position,
+ * a binary save (.bin) is a move archive, see class MoveArchive, every game in it is replayed
+ * the files are split over a fork-join pool, every file is replayed on its own board
+ * and checked against the full chess rules, promotions are to a queen as in the game
+ */
+public class SaveValidator {
+
+    public static final String SAVE_EXTENSION = ".txt";
+
+    // text saves of older versions and the binary saves the game writes now
+    private static final String SAVE_GLOB = "*{" + SAVE_EXTENSION + "," + MoveArchive.EXTENSION + "}";
+
+    // files replayed by one task without splitting further
+    private static final int FILES_PER_TASK = 8;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor of a validator
+     *
+     * @param threads number of threads replaying saves, at least 1
+     */
+    public SaveValidator(int threads) {
+
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+    }
+
+    /**
+     * Validates every save of a directory, sub directories are not searched
+     *
+     * @param directory directory holding the save files
+     * @return the result of every file, ordered by file name, and the totals
+     * @throws IOException if the directory cannot be listed
+     */
+    public Report validateDirectory(Path directory) throws IOException {
+
+        List<Path> files = new ArrayList<Path>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SAVE_GLOB)) {
+
+            for (Path file : stream) {
+
+                if (Files.isRegularFile(file))
+                    files.add(file);
+            }
+        }
+
+        Collections.sort(files);
+
+        FileResult[] results = new FileResult[files.size()];
+
+        long start = System.nanoTime();
+
+        this.pool.invoke(new ValidateTask(files, results, 0, results.length));
+
+        return new Report(results, System.nanoTime() - start);
+    }
+
+    /**
+     * Stops the threads of the validator
+     */
+    public void shutdown() {
+
+        this.pool.shutdown();
+    }
+
+    /**
+     * Replays one save on a new board
+     *
+     * @param file save file
+     * @return the result of the replay, a file that cannot be read is reported as invalid
+     */
+    public static FileResult validateFile(Path file) {
+
+        String name = file.getFileName().toString();
+
+        if (name.endsWith(MoveArchive.EXTENSION))
+            return validateArchive(file, name);
+
+        Board board = new Board();
+
+        byte[] content;
+
+        try {
+
+            content = Files.readAllBytes(file);
+        } catch (IOException ioException) {
+
+            return new FileResult(name, 0, 1, "cannot read file: " + ioException.getMessage(), null);
+        }
+
+        String text = new String(content, StandardCharsets.ISO_8859_1);
+
+        int length = text.length();
+        int lineStart = 0;
+        int plies = 0;
+        boolean firstLine = true;
+
+        while (lineStart < length) {
+
+            int lineEnd = text.indexOf('\n', lineStart);
+
+            if (lineEnd == -1)
+                lineEnd = length;
+
+            int start = skipSpaces(text, lineStart, lineEnd);
+            int end = trimEnd(text, start, lineEnd);
+
+            lineStart = lineEnd + 1;
+
+            if (start == end)
+                continue;
+
+            // a save may start with the position its moves are played from
+            if (firstLine && text.indexOf('/', start) != -1 && text.indexOf('/', start) < end) {
+
+                firstLine = false;
+
+                try {
+
+                    board.loadFen(text.subSequence(start, end));
+                } catch (InvalidFenException fenException) {
+
+                    return new FileResult(name, 0, 1, fenException.getMessage().trim(), null);
+                }
+
+                continue;
+            }
+
+            firstLine = false;
+
+            int move = parseMove(board, text, start, end);
+
+            if (move == Move.NONE)
+                return new FileResult(name, plies, plies + 1, text.substring(start, end), board.toFen());
+
+            board.makeMove(move);
+            plies++;
+        }
+
+        if (plies == 0 && firstLine)
+            return new FileResult(name, 0, 1, "empty file", board.toFen());
+
+        return new FileResult(name, plies, 0, null, board.toFen());
+    }
+
+    /**
+     * Replays every game of a binary save, the plies of all games are counted together
+     * every stored move has to be legal in its position as in a text save
+     */
+    private static FileResult validateArchive(Path file, String name) {
+
+        Board board = new Board();
+        int plies = 0;
+
+        try (MoveArchive archive = new MoveArchive(file)) {
+
+            if (archive.getGameCount() == 0)
+                return new FileResult(name, 0, 1, "empty file", board.toFen());
+
+            for (int game = 0; game < archive.getGameCount(); game++) {
+
+                String fen = archive.getStartingFen(game);
+
+                try {
+
+                    if (fen != null)
+                        board.loadFen(fen);
+                    else
+                        board.init();
+                } catch (InvalidFenException fenException) {
+
+                    return new FileResult(name, plies, plies + 1, fenException.getMessage().trim(), null);
+                }
+
+                int gamePlies = archive.getPlyCount(game);
+
+                for (int ply = 0; ply < gamePlies; ply++) {
+
+                    int stored = archive.getMove(game, ply);
+
+                    // moves of the piece rules only carry quiet and capture flags, the board finds the full move
+                    int move = board.findLegalMove(Move.from(stored), Move.to(stored),
+                            Move.isPromotion(stored) ? Move.promotionType(stored) : Pieces.QUEEN);
+
+                    if (move == Move.NONE)
+                        return new FileResult(name, plies, plies + 1, Move.toString(stored) + " in game " + (game + 1),
+                                board.toFen());
+
+                    board.makeMove(move);
+                    plies++;
+                }
+            }
+        } catch (IOException ioException) {
+
+            return new FileResult(name, plies, plies + 1, "cannot read file: " + ioException.getMessage(), null);
+        } catch (RuntimeException corrupt) {
+
+            // an offset, length or count of the file is out of range, only this file is reported invalid
+            return new FileResult(name, plies, plies + 1, "corrupt archive: " + corrupt.getMessage(), null);
+        }
+
+        return new FileResult(name, plies, 0, null, board.toFen());
+    }
+
+    // "e2, e4", the two squares may be separated by any mix of commas and spaces
+    private static int parseMove(Board board, String text, int start, int end) {
+
+        int from = parseSquare(text, start, end);
+
+        if (from == Board.NO_SQUARE)
+            return Move.NONE;
+
+        int index = start + 2;
+
+        while (index < end && (text.charAt(index) == ',' || text.charAt(index) == ' ')) {
+            index++;
+        }
+
+        if (end - index != 2)
+            return Move.NONE;
+
+        int to = parseSquare(text, index, end);
+
+        if (to == Board.NO_SQUARE)
+            return Move.NONE;
+
+        return board.findLegalMove(from, to, Pieces.QUEEN);
+    }
+
+    private static int parseSquare(String text, int start, int end) {
+
+        if (end - start < 2)
+            return Board.NO_SQUARE;
+
+        int column = text.charAt(start) - 'a';
+        int row = text.charAt(start + 1) - '1';
+
+        if (column < 0 || column > 7 || row < 0 || row > 7)
+            return Board.NO_SQUARE;
+
+        return (row * 8) + column;
+    }
+
+    private static int skipSpaces(String text, int start, int end) {
+
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+
+        return start;
+    }
+
+    private static int trimEnd(String text, int start, int end) {
+
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        return end;
+    }
+
+    /**
+     * Validates a range of files, split in halves until the range is small
+     */
+    private static class ValidateTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Path> files;
+        private final FileResult[] results;
+        private final int from;
+        private final int to;
+
+        ValidateTask(List<Path> files, FileResult[] results, int from, int to) {
+
+            this.files = files;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (this.to - this.from <= FILES_PER_TASK) {
+
+                for (int i = this.from; i < this.to; i++) {
+                    this.results[i] = validateFile(this.files.get(i));
+                }
+
+                return;
+            }
+
+            int middle = (this.from + this.to) >>> 1;
+
+            invokeAll(new ValidateTask(this.files, this.results, this.from, middle),
+                    new ValidateTask(this.files, this.results, middle, this.to));
+        }
+    }
+
+    /**
+     * Class FileResult, outcome of the replay of one save
+     */
+    public static class FileResult {
+
+        public final String fileName;
+
+        // moves replayed before the first illegal one
+        public final int plies;
+
+        // number of the first illegal move counting from 1, 0 when every move is legal
+        public final int illegalPly;
+
+        // text of the first illegal move or the reason the file is invalid, null when legal
+        public final String problem;
+
+        // position after the last legal move, null when there is none
+        public final String finalFen;
+
+        FileResult(String fileName, int plies, int illegalPly, String problem, String finalFen) {
+
+            this.fileName = fileName;
+            this.plies = plies;
+            this.illegalPly = illegalPly;
+            this.problem = problem;
+            this.finalFen = finalFen;
+        }
+
+        public boolean isLegal() {
+
+            return this.illegalPly == 0;
+        }
+
+        @Override
+        public String toString() {
+
+            if (this.isLegal())
+                return this.fileName + ": legal, " + this.plies + " plies, final FEN " + this.finalFen;
+
+            return this.fileName + ": illegal at ply " + this.illegalPly + " (" + this.problem + ")"
+                    + ((this.finalFen != null) ? ", FEN before it " + this.finalFen : "");
+        }
+    }
+
+    /**
+     * Class Report, results of a directory and the totals
+     */
+    public static class Report {
+
+        public final FileResult[] results;
+        public final long elapsedNanos;
+
+        Report(FileResult[] results, long elapsedNanos) {
+
+            this.results = results;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int legalFiles() {
+
+            int legal = 0;
+
+            for (FileResult result : this.results) {
+
+                if (result.isLegal())
+                    legal++;
+            }
+
+            return legal;
+        }
+
+        public long totalPlies() {
+
+            long plies = 0;
+
+            for (FileResult result : this.results) {
+                plies += result.plies;
+            }
+
+            return plies;
+        }
+
+        /**
+         * Writes one line per file followed by the totals
+         *
+         * @param out stream receiving the report
+         */
+        public void print(PrintStream out) {
+
+            for (FileResult result : this.results) {
+                out.println(result);
+            }
+
+            long nanos = Math.max(1, this.elapsedNanos);
+            long plies = this.totalPlies();
+
+            out.println();
+            out.println("Files: " + this.results.length + ", legal " + this.legalFiles() + ", illegal "
+                    + (this.results.length - this.legalFiles()));
+            out.println("Plies: " + plies);
+            out.println("Time: " + (nanos / 1_000_000) + " ms, " + ((this.results.length * 1_000_000_000L) / nanos)
+                    + " files/s, " + ((plies * 1_000_000_000L) / nanos) + " plies/s");
+        }
+    }
+
+    private static void printUsage() {
+
+        System.out.println("Usage: java batch.SaveValidator <directory> [report file] [threads]");
+        System.out.println("The report is printed when no file is given, the exit status is 1 if a save is illegal");
+    }
+
+    /**
+     * Command line entry point, headless so it can run from a scheduled job
+     */
+    public static void main(String[] args) throws IOException {
+
+        if (args.length == 0) {
+
+            printUsage();
+            return;
+        }
+
+        int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        SaveValidator validator = new SaveValidator(threads);
+        Report report;
+
+        try {
+
+            report = validator.validateDirectory(Paths.get(args[0]));
+        } finally {
+
+            validator.shutdown();
+        }
+
+        if (args.length > 1) {
+
+            try (PrintStream out = new PrintStream(Files.newOutputStream(Paths.get(args[1])), false, "UTF-8")) {
+                report.print(out);
+            }
+
+            System.out.println("Report written to " + args[1] + ", " + report.legalFiles() + " of "
+                    + report.results.length + " saves legal");
+        } else {
+
+            report.print(System.out);
+        }
+
+        if (report.legalFiles() != report.results.length)
+            System.exit(1);
+    }
+}
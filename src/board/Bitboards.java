@@ -0,0 +1,114 @@
+package board;
+
+/**
+ * Class Bitboards, part of package board
+ * Static square set tables shared by every board
+ * bit ROW * 8 + COLUMN of a bitboard stands for that square
+ */
+public final class Bitboards {
+
+    // squares strictly between two squares on the same row, column or diagonal, 0 otherwise
+    private static final long[] BETWEEN = new long[64 * 64];
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+
+    // pawn captures per color, indexed [color][square]
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    private static final int[][] KNIGHT_STEPS = { { 2, 1 }, { 2, -1 }, { 1, 2 }, { 1, -2 }, { -2, 1 }, { -2, -1 },
+            { -1, 2 }, { -1, -2 } };
+    private static final int[][] KING_STEPS = { { 0, 1 }, { 1, 1 }, { 1, 0 }, { 1, -1 }, { 0, -1 }, { -1, -1 },
+            { -1, 0 }, { -1, 1 } };
+    private static final int[][] WHITE_PAWN_STEPS = { { 1, 1 }, { 1, -1 } };
+    private static final int[][] BLACK_PAWN_STEPS = { { -1, 1 }, { -1, -1 } };
+
+    static {
+
+        for (int square = 0; square < 64; square++) {
+
+            KNIGHT_ATTACKS[square] = stepTargets(square, KNIGHT_STEPS);
+            KING_ATTACKS[square] = stepTargets(square, KING_STEPS);
+            PAWN_ATTACKS[Pieces.WHITE][square] = stepTargets(square, WHITE_PAWN_STEPS);
+            PAWN_ATTACKS[Pieces.BLACK][square] = stepTargets(square, BLACK_PAWN_STEPS);
+        }
+
+        for (int from = 0; from < 64; from++) {
+
+            for (int to = 0; to < 64; to++) {
+
+                if (from == to)
+                    continue;
+
+                long fromBit = 1L << from;
+                long toBit = 1L << to;
+
+                if ((Magics.rookAttacks(from, 0L) & toBit) != 0) {
+
+                    BETWEEN[(from * 64) + to] = Magics.rookAttacks(from, toBit) & Magics.rookAttacks(to, fromBit);
+                } else if ((Magics.bishopAttacks(from, 0L) & toBit) != 0) {
+
+                    BETWEEN[(from * 64) + to] = Magics.bishopAttacks(from, toBit)
+                            & Magics.bishopAttacks(to, fromBit);
+                }
+            }
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    private static long stepTargets(int square, int[][] steps) {
+
+        long targets = 0L;
+
+        for (int[] step : steps) {
+
+            int row = (square >>> 3) + step[0];
+            int column = (square & 7) + step[1];
+
+            if (row >= 0 && row <= 7 && column >= 0 && column <= 7)
+                targets |= 1L << ((row * 8) + column);
+        }
+
+        return targets;
+    }
+
+    /**
+     * @param square square index of the knight
+     * @return the squares a knight attacks from the given square
+     */
+    public static long knightAttacks(int square) {
+
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * @param square square index of the king
+     * @return the squares a king attacks from the given square
+     */
+    public static long kingAttacks(int square) {
+
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @param color  color of the pawn, Pieces.WHITE or Pieces.BLACK
+     * @param square square index of the pawn
+     * @return the squares a pawn of the given color captures on
+     */
+    public static long pawnAttacks(int color, int square) {
+
+        return PAWN_ATTACKS[color][square];
+    }
+
+    /**
+     * @param from first square index
+     * @param to   second square index
+     * @return the squares strictly between two aligned squares, 0 when they are not aligned
+     */
+    public static long between(int from, int to) {
+
+        return BETWEEN[(from * 64) + to];
+    }
+}
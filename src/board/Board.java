@@ -3,348 +3,1799 @@ package board;
 import location.Location;
 import piece.*;
 
-import java.util.BitSet;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Arrays;
 
 import enums.*;
+import errorMessages.ErrorMessages;
+import exceptions.InvalidFenException;
 
 public class Board {
 
     private final int boardRows = 8;
     private final int boardColumns = 8;
-    public Location whiteKingLocation;
-    public Location blackKingLocation;
 
-    public BitSet canAttackWhite;
+    // castling rights, one bit per color and side of the board
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
 
-    public BitSet canAttackBlack;
+    public static final int NO_SQUARE = -1;
 
-    public BitSet bitSetBoard;
+    // castling rights kept by a move starting or ending on a square, moving or
+    // capturing a king or a rook on its starting square clears its rights
+    private static final int[] CASTLING_MASK = new int[64];
 
-    public HashMap<Piece, Boolean> hasPawnMoved;
+    static {
 
-    public Piece[][] board;
+        for (int i = 0; i < 64; i++) {
+            CASTLING_MASK[i] = ALL_CASTLING;
+        }
+
+        CASTLING_MASK[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASK[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[7] &= ~WHITE_KINGSIDE;
+        CASTLING_MASK[56] &= ~BLACK_QUEENSIDE;
+        CASTLING_MASK[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASK[63] &= ~BLACK_KINGSIDE;
+    }
+
+    // one bitboard per piece code of class Pieces, bit ROW * 8 + COLUMN is set when
+    // the piece stands on that square, these are the source of truth of the position
+    private final long[] pieceBitboards = new long[Pieces.CODES];
+
+    // occupancy of each color, indexed by Pieces.WHITE and Pieces.BLACK
+    private final long[] colorOccupancy = new long[2];
+
+    // occupancy of both colors
+    private long occupancy;
+
+    // piece code per square, answers "what is on this square" without scanning bitboards
+    private final int[] mailbox = new int[64];
+
+    // color to play, Pieces.WHITE or Pieces.BLACK
+    private int sideToMove;
+
+    private int castlingRights;
+
+    // square a pawn can capture on en passant, NO_SQUARE when there is none
+    private int enPassantSquare;
+
+    // half moves since the last capture or pawn move, and the number of the current full move
+    private int halfmoveClock;
+    private int fullmoveNumber;
+
+    // squares attacked by the piece standing on each square, 0 for empty squares
+    private final long[] squareAttacks = new long[64];
+
+    // squares attacked by each color, indexed by Pieces.WHITE and Pieces.BLACK, own pieces included
+    private final long[] attackMaps = new long[2];
+
+    // squares whose piece changed since the attacks of the pieces were last brought up to date
+    private long changedSquares;
+
+    // one bit per color whose attack map has to be combined again from the piece attacks
+    private int staleAttackMaps;
+
+    // pieces giving check to the side to move, pieces of the side to move pinned to their king
+    // and squares a non king move has to land on, valid while checkStateStale is false
+    private long checkers;
+    private long pinned;
+    private long evasionMask;
+
+    private boolean checkStateStale = true;
+
+    // Zobrist key of the position, updated with every piece, rights and side change
+    private long hashKey;
+
+    // en passant key included in the hash key, 0 unless a pawn of the side to move can capture,
+    // so a position after a double push matches the same position reached otherwise
+    private long enPassantKey;
+
+    // piece-square sums from white's point of view and the game phase, see class PieceSquareTables
+    private int middlegameScore;
+    private int endgameScore;
+    private int phase;
+
+    private static final int INITIAL_UNDO_CAPACITY = 1024;
+
+    // one record per played move: bits 0-15 the move, 16-19 the captured piece code + 1,
+    // 20-23 the castling rights, 24-30 the en passant square + 1, 31-62 the halfmove clock
+    private long[] undoStates = new long[INITIAL_UNDO_CAPACITY];
+
+    // Zobrist key before every played move, also the key history of the game
+    private long[] undoKeys = new long[INITIAL_UNDO_CAPACITY];
+
+    private int undoSize;
+
+    // scratch move buffer for single move lookups
+    private final int[] lookupMoves = new int[Move.MAX_MOVES];
+
+    // piece objects derived from the bitboards, only used for display and the Piece api
+    private Piece[][] board;
+
+    private boolean pieceViewStale;
+
+    public Board() {
+
+        this.init();
+    }
+
+    /**
+     * Constructor of a board set up from a FEN position
+     *
+     * @param fen position in Forsyth-Edwards Notation
+     * @throws InvalidFenException if the position cannot be parsed
+     */
+    public Board(CharSequence fen) throws InvalidFenException {
+
+        this.loadFen(fen);
+    }
+
+    public void init() {
+
+        this.clear();
+
+        // create the white pieces first
+        // ROW * 8 + COLUMN
+        for (int i = 0; i < 8; i++) {
+            this.putPiece(Pieces.WHITE_PAWN, (1 * 8) + i);
+        }
+
+        this.putPiece(Pieces.WHITE_ROOK, 0);
+        this.putPiece(Pieces.WHITE_KNIGHT, 1);
+        this.putPiece(Pieces.WHITE_BISHOP, 2);
+        this.putPiece(Pieces.WHITE_QUEEN, 3);
+        this.putPiece(Pieces.WHITE_KING, 4);
+        this.putPiece(Pieces.WHITE_BISHOP, 5);
+        this.putPiece(Pieces.WHITE_KNIGHT, 6);
+        this.putPiece(Pieces.WHITE_ROOK, 7);
+
+        // create the black pieces
+        for (int i = 0; i < 8; i++) {
+
+            this.putPiece(Pieces.BLACK_PAWN, (6 * 8) + i);
+        }
+
+        this.putPiece(Pieces.BLACK_ROOK, (7 * 8));
+        this.putPiece(Pieces.BLACK_KNIGHT, (7 * 8) + 1);
+        this.putPiece(Pieces.BLACK_BISHOP, (7 * 8) + 2);
+        this.putPiece(Pieces.BLACK_QUEEN, (7 * 8) + 3);
+        this.putPiece(Pieces.BLACK_KING, (7 * 8) + 4);
+        this.putPiece(Pieces.BLACK_BISHOP, (7 * 8) + 5);
+        this.putPiece(Pieces.BLACK_KNIGHT, (7 * 8) + 6);
+        this.putPiece(Pieces.BLACK_ROOK, (7 * 8) + 7);
+
+        this.castlingRights = ALL_CASTLING;
+
+        this.hashKey = this.computeHashKey();
+    }
+
+    /**
+     * Removes every piece from the board
+     */
+    public void clear() {
+
+        for (int i = 0; i < Pieces.CODES; i++) {
+            this.pieceBitboards[i] = 0L;
+        }
+
+        this.colorOccupancy[Pieces.WHITE] = 0L;
+        this.colorOccupancy[Pieces.BLACK] = 0L;
+        this.occupancy = 0L;
+
+        for (int i = 0; i < 64; i++) {
+            this.mailbox[i] = Pieces.EMPTY;
+            this.squareAttacks[i] = 0L;
+        }
+
+        this.attackMaps[Pieces.WHITE] = 0L;
+        this.attackMaps[Pieces.BLACK] = 0L;
+        this.changedSquares = 0L;
+        this.staleAttackMaps = 0;
+        this.checkStateStale = true;
+
+        this.sideToMove = Pieces.WHITE;
+        this.castlingRights = 0;
+        this.enPassantSquare = NO_SQUARE;
+        this.halfmoveClock = 0;
+        this.fullmoveNumber = 1;
+        this.hashKey = 0L;
+        this.enPassantKey = 0L;
+        this.middlegameScore = 0;
+        this.endgameScore = 0;
+        this.phase = 0;
+        this.undoSize = 0;
+
+        // the piece view is reused so loading positions allocates nothing
+        if (this.board == null) {
+
+            this.board = new Piece[this.boardRows][this.boardColumns];
+        } else {
+
+            for (Piece[] row : this.board) {
+                Arrays.fill(row, null);
+            }
+        }
+
+        this.pieceViewStale = true;
+    }
+
+    /**
+     * Sets up the position of a FEN string, e.g. the starting position is
+     * "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"
+     * the text is read character by character, the move clocks may be left out
+     *
+     * @param fen position in Forsyth-Edwards Notation
+     * @throws InvalidFenException if the position cannot be parsed, the board is then left as it was
+     */
+    public void loadFen(CharSequence fen) throws InvalidFenException {
+
+        // the fields are read into locals first, an invalid FEN leaves the current position untouched
+        int[] placement = new int[64];
+        Arrays.fill(placement, Pieces.EMPTY);
+
+        int length = fen.length();
+        int index = 0;
+        int row = 7;
+        int column = 0;
+        int whiteKings = 0;
+        int blackKings = 0;
+
+        // piece placement, from row 8 down to row 1
+        while (index < length && fen.charAt(index) != ' ') {
+
+            char c = fen.charAt(index++);
+
+            if (c == '/') {
+
+                if (column != 8 || row == 0)
+                    throw invalidFen(fen);
+
+                row--;
+                column = 0;
+            } else if (c >= '1' && c <= '8') {
+
+                column += c - '0';
+
+                if (column > 8)
+                    throw invalidFen(fen);
+            } else {
+
+                int code = Pieces.SYMBOLS.indexOf(c);
+
+                if (code == -1 || column > 7)
+                    throw invalidFen(fen);
+
+                if (code == Pieces.WHITE_KING)
+                    whiteKings++;
+                else if (code == Pieces.BLACK_KING)
+                    blackKings++;
+
+                placement[(row * 8) + column] = code;
+                column++;
+            }
+        }
+
+        if (row != 0 || column != 8 || whiteKings != 1 || blackKings != 1)
+            throw invalidFen(fen);
+
+        // side to move
+        index = skipSpaces(fen, index);
+
+        if (index >= length)
+            throw invalidFen(fen);
+
+        char side = fen.charAt(index++);
+        int sideToMove;
+
+        if (side == 'w')
+            sideToMove = Pieces.WHITE;
+        else if (side == 'b')
+            sideToMove = Pieces.BLACK;
+        else
+            throw invalidFen(fen);
+
+        // castling rights
+        index = skipSpaces(fen, index);
+
+        int castlingRights = 0;
+
+        if (index < length && fen.charAt(index) == '-') {
+
+            index++;
+        } else {
+
+            while (index < length && fen.charAt(index) != ' ') {
+
+                switch (fen.charAt(index++)) {
+
+                    case 'K':
+                        castlingRights |= WHITE_KINGSIDE;
+                        break;
+                    case 'Q':
+                        castlingRights |= WHITE_QUEENSIDE;
+                        break;
+                    case 'k':
+                        castlingRights |= BLACK_KINGSIDE;
+                        break;
+                    case 'q':
+                        castlingRights |= BLACK_QUEENSIDE;
+                        break;
+                    default:
+                        throw invalidFen(fen);
+                }
+            }
+        }
+
+        // a castling right needs its king and rook on their home squares, castling moves the rook from there
+        if (((castlingRights & (WHITE_KINGSIDE | WHITE_QUEENSIDE)) != 0 && placement[4] != Pieces.WHITE_KING)
+                || ((castlingRights & WHITE_KINGSIDE) != 0 && placement[7] != Pieces.WHITE_ROOK)
+                || ((castlingRights & WHITE_QUEENSIDE) != 0 && placement[0] != Pieces.WHITE_ROOK)
+                || ((castlingRights & (BLACK_KINGSIDE | BLACK_QUEENSIDE)) != 0 && placement[60] != Pieces.BLACK_KING)
+                || ((castlingRights & BLACK_KINGSIDE) != 0 && placement[63] != Pieces.BLACK_ROOK)
+                || ((castlingRights & BLACK_QUEENSIDE) != 0 && placement[56] != Pieces.BLACK_ROOK))
+            throw invalidFen(fen);
+
+        // en passant square
+        index = skipSpaces(fen, index);
+
+        int enPassantSquare = NO_SQUARE;
+
+        if (index < length && fen.charAt(index) == '-') {
+
+            index++;
+        } else if (index < length) {
+
+            // a lone column character is not a square
+            if (index + 1 == length)
+                throw invalidFen(fen);
+
+            char file = fen.charAt(index);
+            char rank = fen.charAt(index + 1);
+
+            // the square is behind a pawn of the side that just moved, rank 6 when white is to move
+            if (file < 'a' || file > 'h' || rank != ((sideToMove == Pieces.WHITE) ? '6' : '3'))
+                throw invalidFen(fen);
+
+            enPassantSquare = ((rank - '1') * 8) + (file - 'a');
+            index += 2;
+        }
+
+        // optional move clocks
+        index = skipSpaces(fen, index);
+
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+
+        if (index < length) {
+
+            int end = skipDigits(fen, index);
+
+            if (end == index)
+                throw invalidFen(fen);
+
+            halfmoveClock = parseNumber(fen, index, end);
+            index = skipSpaces(fen, end);
+
+            if (index < length) {
+
+                end = skipDigits(fen, index);
+
+                if (end == index)
+                    throw invalidFen(fen);
+
+                fullmoveNumber = Math.max(1, parseNumber(fen, index, end));
+            }
+        }
+
+        // the whole position is valid, only now the board is replaced
+        this.clear();
+
+        for (int square = 0; square < 64; square++) {
+
+            if (placement[square] != Pieces.EMPTY)
+                this.putPiece(placement[square], square);
+        }
+
+        this.sideToMove = sideToMove;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+
+        this.enPassantKey = this.capturableEnPassantKey();
+        this.hashKey = this.computeHashKey();
+    }
+
+    /**
+     * @return the position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+
+        return this.appendFen(new StringBuilder(90)).toString();
+    }
+
+    /**
+     * Writes the position in Forsyth-Edwards Notation, with a reused builder nothing is allocated
+     *
+     * @param fen builder the position is appended to
+     * @return the given builder
+     */
+    public StringBuilder appendFen(StringBuilder fen) {
+
+        for (int row = 7; row >= 0; row--) {
+
+            int emptySquares = 0;
+
+            for (int column = 0; column < 8; column++) {
+
+                int code = this.mailbox[(row * 8) + column];
+
+                if (code == Pieces.EMPTY) {
+
+                    emptySquares++;
+                    continue;
+                }
+
+                if (emptySquares > 0) {
+
+                    fen.append((char) ('0' + emptySquares));
+                    emptySquares = 0;
+                }
+
+                fen.append(Pieces.symbolOf(code));
+            }
+
+            if (emptySquares > 0)
+                fen.append((char) ('0' + emptySquares));
+
+            if (row > 0)
+                fen.append('/');
+        }
+
+        fen.append((this.sideToMove == Pieces.WHITE) ? " w " : " b ");
+
+        if (this.castlingRights == 0) {
+
+            fen.append('-');
+        } else {
+
+            if ((this.castlingRights & WHITE_KINGSIDE) != 0)
+                fen.append('K');
+
+            if ((this.castlingRights & WHITE_QUEENSIDE) != 0)
+                fen.append('Q');
+
+            if ((this.castlingRights & BLACK_KINGSIDE) != 0)
+                fen.append('k');
+
+            if ((this.castlingRights & BLACK_QUEENSIDE) != 0)
+                fen.append('q');
+        }
+
+        fen.append(' ');
+
+        if (this.enPassantSquare == NO_SQUARE)
+            fen.append('-');
+        else
+            fen.append((char) ('a' + (this.enPassantSquare & 7))).append((char) ('1' + (this.enPassantSquare >>> 3)));
+
+        return fen.append(' ').append(this.halfmoveClock).append(' ').append(this.fullmoveNumber);
+    }
+
+    private static int skipSpaces(CharSequence text, int index) {
+
+        while (index < text.length() && text.charAt(index) == ' ') {
+            index++;
+        }
+
+        return index;
+    }
+
+    private static int skipDigits(CharSequence text, int index) {
+
+        while (index < text.length() && text.charAt(index) >= '0' && text.charAt(index) <= '9') {
+            index++;
+        }
+
+        return index;
+    }
+
+    private static int parseNumber(CharSequence text, int start, int end) {
+
+        int number = 0;
+
+        for (int i = start; i < end; i++) {
+            number = (number * 10) + (text.charAt(i) - '0');
+        }
+
+        return number;
+    }
+
+    private static InvalidFenException invalidFen(CharSequence fen) {
+
+        return new InvalidFenException(ErrorMessages.invalidFenErrorMessage + fen);
+    }
+
+    /**
+     * Makes this board a copy of another one, only primitive state is copied
+     *
+     * @param other board to copy
+     */
+    public void copyFrom(Board other) {
+
+        System.arraycopy(other.pieceBitboards, 0, this.pieceBitboards, 0, Pieces.CODES);
+        System.arraycopy(other.mailbox, 0, this.mailbox, 0, 64);
+
+        this.colorOccupancy[Pieces.WHITE] = other.colorOccupancy[Pieces.WHITE];
+        this.colorOccupancy[Pieces.BLACK] = other.colorOccupancy[Pieces.BLACK];
+        this.occupancy = other.occupancy;
+
+        System.arraycopy(other.squareAttacks, 0, this.squareAttacks, 0, 64);
+
+        this.attackMaps[Pieces.WHITE] = other.attackMaps[Pieces.WHITE];
+        this.attackMaps[Pieces.BLACK] = other.attackMaps[Pieces.BLACK];
+        this.changedSquares = other.changedSquares;
+        this.staleAttackMaps = other.staleAttackMaps;
+        this.checkStateStale = true;
+
+        this.sideToMove = other.sideToMove;
+        this.castlingRights = other.castlingRights;
+        this.enPassantSquare = other.enPassantSquare;
+        this.halfmoveClock = other.halfmoveClock;
+        this.fullmoveNumber = other.fullmoveNumber;
+        this.hashKey = other.hashKey;
+        this.enPassantKey = other.enPassantKey;
+        this.middlegameScore = other.middlegameScore;
+        this.endgameScore = other.endgameScore;
+        this.phase = other.phase;
+
+        if (this.undoStates.length < other.undoSize) {
+
+            this.undoStates = new long[other.undoStates.length];
+            this.undoKeys = new long[other.undoKeys.length];
+        }
+
+        System.arraycopy(other.undoStates, 0, this.undoStates, 0, other.undoSize);
+        System.arraycopy(other.undoKeys, 0, this.undoKeys, 0, other.undoSize);
+        this.undoSize = other.undoSize;
+
+        this.pieceViewStale = true;
+    }
+
+    /**
+     * Places a piece on an empty square
+     *
+     * @param code   piece code, from class Pieces
+     * @param square square index, ROW * 8 + COLUMN
+     */
+    public void putPiece(int code, int square) {
+
+        long bit = 1L << square;
+
+        this.pieceBitboards[code] |= bit;
+        this.colorOccupancy[Pieces.colorOf(code)] |= bit;
+        this.occupancy |= bit;
+        this.mailbox[square] = code;
+        this.hashKey ^= Zobrist.piece(code, square);
+
+        this.middlegameScore += PieceSquareTables.middlegame(code, square);
+        this.endgameScore += PieceSquareTables.endgame(code, square);
+        this.phase += PieceSquareTables.phase(code);
+
+        this.changedSquares |= bit;
+        this.checkStateStale = true;
+
+        this.pieceViewStale = true;
+    }
+
+    /**
+     * Removes the piece standing on a square
+     *
+     * @param square square index, ROW * 8 + COLUMN
+     * @return the code of the removed piece, Pieces.EMPTY if there was none
+     */
+    public int removePiece(int square) {
+
+        int code = this.mailbox[square];
+
+        if (code == Pieces.EMPTY)
+            return code;
+
+        long bit = 1L << square;
+
+        this.pieceBitboards[code] &= ~bit;
+        this.colorOccupancy[Pieces.colorOf(code)] &= ~bit;
+        this.occupancy &= ~bit;
+        this.mailbox[square] = Pieces.EMPTY;
+        this.hashKey ^= Zobrist.piece(code, square);
+
+        this.middlegameScore -= PieceSquareTables.middlegame(code, square);
+        this.endgameScore -= PieceSquareTables.endgame(code, square);
+        this.phase -= PieceSquareTables.phase(code);
+
+        this.changedSquares |= bit;
+        this.checkStateStale = true;
+
+        this.pieceViewStale = true;
+
+        return code;
+    }
+
+    public void movePiece(Location from, Location to) {
+
+        int fromSquare = squareOf(from);
+        int toSquare = squareOf(to);
+
+        int code = this.mailbox[fromSquare];
+
+        this.pushUndo(Move.encode(fromSquare, toSquare, Move.QUIET), Pieces.EMPTY);
+
+        this.shiftPiece(code, fromSquare, toSquare);
+
+        this.finishMove(code, fromSquare, toSquare, false);
+    }
+
+    public void movePieceCapturing(Location from, Location to) {
+
+        int fromSquare = squareOf(from);
+        int toSquare = squareOf(to);
+
+        int code = this.mailbox[fromSquare];
+
+        this.pushUndo(Move.encode(fromSquare, toSquare, Move.CAPTURE), this.mailbox[toSquare]);
+
+        this.removePiece(toSquare);
+
+        this.shiftPiece(code, fromSquare, toSquare);
+
+        this.finishMove(code, fromSquare, toSquare, true);
+    }
+
+    /**
+     * Plays a move produced by the move generator, including castling,
+     * en passant and promotions, the move can be taken back with unmakeMove
+     *
+     * @param move packed move, see class Move
+     */
+    public void makeMove(int move) {
+
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flags = Move.flags(move);
+
+        int code = this.mailbox[from];
+        boolean isCapture = Move.isCapture(move);
+
+        // the captured pawn of an en passant capture stands behind the landing square
+        int capturedSquare = (flags == Move.EN_PASSANT) ? ((this.sideToMove == Pieces.WHITE) ? to - 8 : to + 8) : to;
+
+        this.pushUndo(move, this.mailbox[capturedSquare]);
+
+        if (flags == Move.EN_PASSANT) {
+
+            this.removePiece(capturedSquare);
+        } else if (isCapture) {
+
+            this.removePiece(to);
+        }
+
+        this.shiftPiece(code, from, to);
+
+        if (Move.isPromotion(move)) {
+
+            this.removePiece(to);
+            this.putPiece(Pieces.code(this.sideToMove, Move.promotionType(move)), to);
+        } else if (flags == Move.KING_CASTLE) {
+
+            this.shiftPiece(Pieces.code(this.sideToMove, Pieces.ROOK), to + 1, to - 1);
+        } else if (flags == Move.QUEEN_CASTLE) {
+
+            this.shiftPiece(Pieces.code(this.sideToMove, Pieces.ROOK), to - 2, to + 1);
+        }
+
+        this.finishMove(code, from, to, isCapture);
+    }
+
+    /**
+     * Takes back the last move played with makeMove, movePiece or movePieceCapturing
+     * the state before the move is restored from the undo stack
+     */
+    public void unmakeMove() {
+
+        this.undoSize--;
+
+        long state = this.undoStates[this.undoSize];
+
+        int move = (int) (state & 0xFFFF);
+        int captured = (int) ((state >>> 16) & 0xF) - 1;
+
+        this.sideToMove ^= 1;
+
+        int us = this.sideToMove;
+
+        if (us == Pieces.BLACK)
+            this.fullmoveNumber--;
+
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flags = Move.flags(move);
+
+        if (Move.isPromotion(move)) {
+
+            this.removePiece(to);
+            this.putPiece(Pieces.code(us, Pieces.PAWN), to);
+        } else if (flags == Move.KING_CASTLE) {
+
+            this.shiftPiece(Pieces.code(us, Pieces.ROOK), to - 1, to + 1);
+        } else if (flags == Move.QUEEN_CASTLE) {
+
+            this.shiftPiece(Pieces.code(us, Pieces.ROOK), to + 1, to - 2);
+        }
+
+        this.shiftPiece(this.mailbox[to], to, from);
+
+        if (captured != Pieces.EMPTY) {
+
+            if (flags == Move.EN_PASSANT)
+                this.putPiece(captured, (us == Pieces.WHITE) ? to - 8 : to + 8);
+            else
+                this.putPiece(captured, to);
+        }
+
+        this.castlingRights = (int) ((state >>> 20) & 0xF);
+        this.enPassantSquare = (int) ((state >>> 24) & 0x7F) - 1;
+        this.halfmoveClock = (int) ((state >>> 31) & 0xFFFFFFFFL);
+        this.hashKey = this.undoKeys[this.undoSize];
+        this.enPassantKey = this.capturableEnPassantKey();
+        this.checkStateStale = true;
+    }
+
+    /**
+     * Records the state a move is about to change
+     */
+    private void pushUndo(int move, int captured) {
+
+        if (this.undoSize == this.undoStates.length) {
+
+            this.undoStates = Arrays.copyOf(this.undoStates, this.undoSize * 2);
+            this.undoKeys = Arrays.copyOf(this.undoKeys, this.undoSize * 2);
+        }
+
+        this.undoStates[this.undoSize] = (move & 0xFFFFL) | ((long) (captured + 1) << 16)
+                | ((long) this.castlingRights << 20) | ((long) (this.enPassantSquare + 1) << 24)
+                | ((long) this.halfmoveClock << 31);
+        this.undoKeys[this.undoSize] = this.hashKey;
+        this.undoSize++;
+    }
+
+    /**
+     * Checks the key history for an earlier occurrence of the position, only the
+     * moves since the last capture or pawn move can lead back to it
+     *
+     * @return true if the current position was already reached with the same side to move
+     */
+    public boolean isRepetition() {
+
+        int oldest = Math.max(0, this.undoSize - this.halfmoveClock);
+
+        for (int i = this.undoSize - 2; i >= oldest; i -= 2) {
+
+            if (this.undoKeys[i] == this.hashKey)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * @return how many times the current position was reached before, with the same side to move
+     */
+    public int getRepetitionCount() {
+
+        int count = 0;
+        int oldest = Math.max(0, this.undoSize - this.halfmoveClock);
+
+        for (int i = this.undoSize - 2; i >= oldest; i -= 2) {
+
+            if (this.undoKeys[i] == this.hashKey)
+                count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Finds the legal move of the side to move between two squares
+     *
+     * @param from          starting square index
+     * @param to            ending square index
+     * @param promotionType piece type a pawn reaching the last row becomes, ignored for other moves
+     * @return the packed legal move, Move.NONE if there is no such legal move
+     */
+    public int findLegalMove(int from, int to, int promotionType) {
+
+        int count = this.generateLegalMoves(this.lookupMoves);
+
+        for (int i = 0; i < count; i++) {
+
+            int move = this.lookupMoves[i];
+
+            if (Move.from(move) == from && Move.to(move) == to
+                    && (Move.isPromotion(move) == false || Move.promotionType(move) == promotionType))
+                return move;
+        }
+
+        return Move.NONE;
+    }
+
+    /**
+     * @return the number of moves that can be taken back
+     */
+    public int getUndoSize() {
+
+        return this.undoSize;
+    }
+
+    /**
+     * @return the last played move, Move.NONE if no move was played
+     */
+    public int getLastMove() {
+
+        return (this.undoSize == 0) ? Move.NONE : (int) (this.undoStates[this.undoSize - 1] & 0xFFFF);
+    }
+
+    /**
+     * @param index position of the move in the history, 0 for the first move played
+     *              since the position was set up
+     * @return the move played at that point, between 0 and getUndoSize() - 1
+     */
+    public int getMove(int index) {
+
+        return (int) (this.undoStates[index] & 0xFFFF);
+    }
+
+    /**
+     * Moves a piece between two squares, the ending square must be empty
+     */
+    private void shiftPiece(int code, int from, int to) {
+
+        long fromTo = (1L << from) | (1L << to);
+
+        this.pieceBitboards[code] ^= fromTo;
+        this.colorOccupancy[Pieces.colorOf(code)] ^= fromTo;
+        this.occupancy ^= fromTo;
+        this.mailbox[from] = Pieces.EMPTY;
+        this.mailbox[to] = code;
+        this.hashKey ^= Zobrist.piece(code, from) ^ Zobrist.piece(code, to);
+
+        this.middlegameScore += PieceSquareTables.middlegame(code, to) - PieceSquareTables.middlegame(code, from);
+        this.endgameScore += PieceSquareTables.endgame(code, to) - PieceSquareTables.endgame(code, from);
+
+        this.changedSquares |= fromTo;
+        this.checkStateStale = true;
+
+        this.pieceViewStale = true;
+    }
+
+    /**
+     * Updates castling rights, en passant square, clocks and the side to move after a move
+     */
+    private void finishMove(int code, int from, int to, boolean isCapture) {
+
+        // remove the old rights and en passant column from the key, the new ones are added below
+        this.hashKey ^= Zobrist.castling(this.castlingRights) ^ this.enPassantKey;
+
+        this.castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+
+        boolean isPawn = Pieces.typeOf(code) == Pieces.PAWN;
+
+        if (isPawn && (to - from == 16 || from - to == 16))
+            this.enPassantSquare = (from + to) >>> 1;
+        else
+            this.enPassantSquare = NO_SQUARE;
+
+        this.hashKey ^= Zobrist.castling(this.castlingRights) ^ Zobrist.side();
+
+        if (isPawn || isCapture)
+            this.halfmoveClock = 0;
+        else
+            this.halfmoveClock++;
+
+        if (this.sideToMove == Pieces.BLACK)
+            this.fullmoveNumber++;
+
+        this.sideToMove ^= 1;
+        this.checkStateStale = true;
+
+        this.enPassantKey = this.capturableEnPassantKey();
+        this.hashKey ^= this.enPassantKey;
+    }
+
+    /**
+     * @return the key of the en passant column if a pawn of the side to move attacks
+     *         the en passant square, 0 otherwise
+     */
+    private long capturableEnPassantKey() {
+
+        if (this.enPassantSquare == NO_SQUARE)
+            return 0L;
+
+        int us = this.sideToMove;
+
+        // a pawn of the side to move attacks the square if a pawn of the other color on it would attack the pawn
+        if ((Bitboards.pawnAttacks(us ^ 1, this.enPassantSquare) & this.pieceBitboards[Pieces.code(us, Pieces.PAWN)]) == 0)
+            return 0L;
+
+        return Zobrist.enPassant(this.enPassantSquare);
+    }
+
+    /**
+     * Writes every legal move of the side to move into the given buffer
+     * nothing is allocated, the buffer must hold at least Move.MAX_MOVES moves
+     *
+     * @param moves buffer receiving the packed moves
+     * @return the number of legal moves written
+     */
+    public int generateLegalMoves(int[] moves) {
+
+        int count = this.generatePseudoLegalMoves(moves);
+        int legalCount = 0;
+
+        for (int i = 0; i < count; i++) {
+
+            if (this.isLegal(moves[i]))
+                moves[legalCount++] = moves[i];
+        }
+
+        return legalCount;
+    }
+
+    /**
+     * Writes every move of the side to move that obeys the piece movement rules
+     * into the given buffer, moves leaving the own king in check are included
+     *
+     * @param moves buffer receiving the packed moves
+     * @return the number of moves written
+     */
+    public int generatePseudoLegalMoves(int[] moves) {
+
+        int us = this.sideToMove;
+        long own = this.colorOccupancy[us];
+        long enemy = this.colorOccupancy[us ^ 1];
+        long notOwn = ~own;
+
+        int count = this.generatePawnMoves(moves, 0, us, enemy);
+
+        int base = us * Pieces.TYPES;
+
+        long knights = this.pieceBitboards[base + Pieces.KNIGHT];
+
+        while (knights != 0) {
+
+            int from = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+
+            count = addMoves(moves, count, from, Bitboards.knightAttacks(from) & notOwn, enemy);
+        }
+
+        long queens = this.pieceBitboards[base + Pieces.QUEEN];
+        long diagonalSliders = this.pieceBitboards[base + Pieces.BISHOP] | queens;
+        long straightSliders = this.pieceBitboards[base + Pieces.ROOK] | queens;
+
+        while (diagonalSliders != 0) {
+
+            int from = Long.numberOfTrailingZeros(diagonalSliders);
+            diagonalSliders &= diagonalSliders - 1;
+
+            count = addMoves(moves, count, from, Magics.bishopAttacks(from, this.occupancy) & notOwn, enemy);
+        }
+
+        while (straightSliders != 0) {
+
+            int from = Long.numberOfTrailingZeros(straightSliders);
+            straightSliders &= straightSliders - 1;
+
+            count = addMoves(moves, count, from, Magics.rookAttacks(from, this.occupancy) & notOwn, enemy);
+        }
+
+        long king = this.pieceBitboards[base + Pieces.KING];
 
-    public Board() {
+        if (king != 0) {
 
-        this.init();
+            int from = Long.numberOfTrailingZeros(king);
+
+            count = addMoves(moves, count, from, Bitboards.kingAttacks(from) & notOwn, enemy);
+            count = this.generateCastlingMoves(moves, count, us, from);
+        }
+
+        return count;
     }
 
-    public void init() {
+    private int generatePawnMoves(int[] moves, int count, int us, long enemy) {
+
+        long pawns = this.pieceBitboards[Pieces.code(us, Pieces.PAWN)];
+        long empty = ~this.occupancy;
+
+        long singlePushes, doublePushes, lastRow;
+        int forward;
 
-        this.canAttackWhite = new BitSet(64);
+        if (us == Pieces.WHITE) {
 
-        this.canAttackBlack = new BitSet(64);
+            singlePushes = (pawns << 8) & empty;
+            doublePushes = (singlePushes << 8) & empty & 0x00000000FF000000L;
+            lastRow = 0xFF00000000000000L;
+            forward = 8;
+        } else {
 
-        this.bitSetBoard = new BitSet(64);
+            singlePushes = (pawns >>> 8) & empty;
+            doublePushes = (singlePushes >>> 8) & empty & 0x000000FF00000000L;
+            lastRow = 0x00000000000000FFL;
+            forward = -8;
+        }
 
-        this.hasPawnMoved = new HashMap<>();
+        while (singlePushes != 0) {
 
-        // initiaze empty board of pieces
-        this.board = new Piece[this.boardRows][this.boardColumns];
+            int to = Long.numberOfTrailingZeros(singlePushes);
+            singlePushes &= singlePushes - 1;
 
-        // create the white pieces first
-        // ROW * 8 + COLUMN
-        for (int i = 0; i < 8; i++) {
-            this.bitSetBoard.set((1 * 8) + i);
-            this.board[1][i] = new Pawn(Color.WHITE, new Location(2, i + 1), this);
+            if (((1L << to) & lastRow) != 0)
+                count = addPromotions(moves, count, to - forward, to, Move.KNIGHT_PROMOTION);
+            else
+                moves[count++] = Move.encode(to - forward, to, Move.QUIET);
+        }
+
+        while (doublePushes != 0) {
+
+            int to = Long.numberOfTrailingZeros(doublePushes);
+            doublePushes &= doublePushes - 1;
+
+            moves[count++] = Move.encode(to - forward - forward, to, Move.DOUBLE_PAWN_PUSH);
         }
 
-        this.board[0][0] = new Rook(Color.WHITE, new Location(1, 1), this);
-        this.bitSetBoard.set(0);
-        this.board[0][1] = new Knight(Color.WHITE, new Location(1, 2), this);
-        this.bitSetBoard.set(1);
-        this.board[0][2] = new Bishop(Color.WHITE, new Location(1, 3), this);
-        this.bitSetBoard.set(2);
-        this.board[0][3] = new Queen(Color.WHITE, new Location(1, 4), this);
-        this.bitSetBoard.set(3);
-        this.board[0][4] = new King(Color.WHITE, new Location(1, 5), this);
-        this.bitSetBoard.set(4);
-        this.board[0][5] = new Bishop(Color.WHITE, new Location(1, 6), this);
-        this.bitSetBoard.set(5);
-        this.board[0][6] = new Knight(Color.WHITE, new Location(1, 7), this);
-        this.bitSetBoard.set(6);
-        this.board[0][7] = new Rook(Color.WHITE, new Location(1, 8), this);
-        this.bitSetBoard.set(7);
+        long capturers = pawns;
+
+        while (capturers != 0) {
+
+            int from = Long.numberOfTrailingZeros(capturers);
+            capturers &= capturers - 1;
+
+            long targets = Bitboards.pawnAttacks(us, from) & enemy;
 
-        this.whiteKingLocation = this.board[0][4].location;
+            while (targets != 0) {
 
-        // set the initial attacking positions of white
-        for (int i = 0; i < this.boardColumns; i++) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
 
-            this.canAttackWhite.set((2 * 8) + i);
+                if (((1L << to) & lastRow) != 0)
+                    count = addPromotions(moves, count, from, to, Move.KNIGHT_PROMOTION_CAPTURE);
+                else
+                    moves[count++] = Move.encode(from, to, Move.CAPTURE);
+            }
         }
 
-        // create the black pieces
-        for (int i = 0; i < 8; i++) {
+        if (this.enPassantSquare != NO_SQUARE) {
+
+            // our pawns that could capture on the square are the ones an enemy pawn there would attack
+            long attackers = Bitboards.pawnAttacks(us ^ 1, this.enPassantSquare) & pawns;
 
-            this.bitSetBoard.set((6 * 8) + i);
-            this.board[6][i] = new Pawn(Color.BLACK, new Location(7, i + 1), this);
+            while (attackers != 0) {
+
+                int from = Long.numberOfTrailingZeros(attackers);
+                attackers &= attackers - 1;
+
+                moves[count++] = Move.encode(from, this.enPassantSquare, Move.EN_PASSANT);
+            }
         }
 
-        this.board[7][0] = new Rook(Color.BLACK, new Location(8, 1), this);
-        this.bitSetBoard.set((7 * 8));
-        this.board[7][1] = new Knight(Color.BLACK, new Location(8, 2), this);
-        this.bitSetBoard.set((7 * 8) + 1);
-        this.board[7][2] = new Bishop(Color.BLACK, new Location(8, 3), this);
-        this.bitSetBoard.set((7 * 8) + 2);
-        this.board[7][3] = new Queen(Color.BLACK, new Location(8, 4), this);
-        this.bitSetBoard.set((7 * 8) + 3);
-        this.board[7][4] = new King(Color.BLACK, new Location(8, 5), this);
-        this.bitSetBoard.set((7 * 8) + 4);
-        this.board[7][5] = new Bishop(Color.BLACK, new Location(8, 6), this);
-        this.bitSetBoard.set((7 * 8) + 5);
-        this.board[7][6] = new Knight(Color.BLACK, new Location(8, 7), this);
-        this.bitSetBoard.set((7 * 8) + 6);
-        this.board[7][7] = new Rook(Color.BLACK, new Location(8, 8), this);
-        this.bitSetBoard.set((7 * 8) + 7);
+        return count;
+    }
+
+    private int generateCastlingMoves(int[] moves, int count, int us, int kingSquare) {
+
+        int them = us ^ 1;
+        int kingside = (us == Pieces.WHITE) ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+        int queenside = (us == Pieces.WHITE) ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+
+        if ((this.castlingRights & (kingside | queenside)) == 0 || this.isSquareAttacked(kingSquare, them))
+            return count;
+
+        // squares between king and rook, shifted to the row of the moving color
+        int shift = (us == Pieces.WHITE) ? 0 : 56;
 
-        this.blackKingLocation = this.board[7][4].location;
+        if ((this.castlingRights & kingside) != 0 && (this.occupancy & (0x60L << shift)) == 0
+                && this.isSquareAttacked(kingSquare + 1, them) == false)
+            moves[count++] = Move.encode(kingSquare, kingSquare + 2, Move.KING_CASTLE);
 
-        // set the initial attacking positions of black
-        for (int i = 0; i < this.boardColumns; i++) {
+        if ((this.castlingRights & queenside) != 0 && (this.occupancy & (0x0EL << shift)) == 0
+                && this.isSquareAttacked(kingSquare - 1, them) == false)
+            moves[count++] = Move.encode(kingSquare, kingSquare - 2, Move.QUEEN_CASTLE);
 
-            this.canAttackBlack.set((5 * 8) + i);
+        return count;
+    }
+
+    private static int addMoves(int[] moves, int count, int from, long targets, long enemy) {
+
+        while (targets != 0) {
+
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+
+            moves[count++] = Move.encode(from, to, ((enemy & (1L << to)) != 0) ? Move.CAPTURE : Move.QUIET);
         }
+
+        return count;
     }
 
-    public void movePiece(Location from, Location to) {
+    private static int addPromotions(int[] moves, int count, int from, int to, int firstFlag) {
+
+        for (int flag = firstFlag; flag < firstFlag + 4; flag++) {
+            moves[count++] = Move.encode(from, to, flag);
+        }
+
+        return count;
+    }
+
+    /**
+     * Checks that a pseudo legal move does not leave the own king attacked
+     * the check and pin masks of the position answer most moves with a few bit operations,
+     * king moves and en passant captures, which remove two pieces from a row, are tested
+     * on the occupancy after the move
+     *
+     * @param move packed pseudo legal move of the side to move
+     * @return true if the move is legal
+     */
+    public boolean isLegal(int move) {
+
+        int us = this.sideToMove;
+        long king = this.pieceBitboards[Pieces.code(us, Pieces.KING)];
+
+        if (king == 0)
+            return true;
+
+        if (this.checkStateStale == true)
+            this.updateCheckState();
+
+        int from = Move.from(move);
+        int to = Move.to(move);
+
+        long fromBit = 1L << from;
+        long toBit = 1L << to;
 
-        Piece movingPiece = this.getPieceAt(from);
+        // the king leaves its square, so a checking slider also attacks the squares behind it
+        if ((king & fromBit) != 0)
+            return this.isAttacked(to, us ^ 1, this.occupancy ^ fromBit, ~toBit) == false;
 
-        this.board[from.getRow()][from.getCol()] = null;
+        if (Move.flags(move) == Move.EN_PASSANT) {
 
-        this.board[to.getRow()][to.getCol()] = movingPiece;
+            long captured = 1L << ((us == Pieces.WHITE) ? to - 8 : to + 8);
+            long occupied = (this.occupancy ^ fromBit ^ captured) | toBit;
 
-        movingPiece.location = to;
+            return this.isAttacked(Long.numberOfTrailingZeros(king), us ^ 1, occupied, ~captured) == false;
+        }
+
+        // out of check a move has to capture the checking piece or step between it and the king
+        if ((this.evasionMask & toBit) == 0)
+            return false;
+
+        if ((this.pinned & fromBit) == 0)
+            return true;
+
+        // a pinned piece stays on the line through its king
+        int kingSquare = Long.numberOfTrailingZeros(king);
+
+        return (Bitboards.between(kingSquare, to) & fromBit) != 0 || (Bitboards.between(kingSquare, from) & toBit) != 0;
+    }
 
-        // this.bitSetBoard.set((from.getRow() * 8) + from.getCol(), false);
-        // this.bitSetBoard.set((to.getRow() * 8) + to.getCol());
+    /**
+     * Tells whether the side to move has a legal move without generating all of them,
+     * the king steps are masked with the attack map of the other color first
+     *
+     * @return true if the side to move has at least one legal move
+     */
+    public boolean hasLegalMove() {
 
-        // List<Location> canReach = movingPiece.generatePath();
+        int us = this.sideToMove;
+        long king = this.pieceBitboards[Pieces.code(us, Pieces.KING)];
 
-        // BitSet testBitSet = new BitSet(64);
+        if (this.checkStateStale == true)
+            this.updateCheckState();
 
-        // for (Location loc : canReach) {
+        if (king != 0) {
 
-        //     testBitSet.set((loc.getRow() * 8) + loc.getCol());
-        // }
+            int kingSquare = Long.numberOfTrailingZeros(king);
+            long steps = Bitboards.kingAttacks(kingSquare) & ~this.colorOccupancy[us] & ~this.getAttackMap(us ^ 1);
 
-        // System.out.println("Current state of can white attack");
-        // this.printBitSet(canAttackWhite);
+            while (steps != 0) {
 
-        // System.out.println("Current state of test bit set");
-        // this.printBitSet(testBitSet);
+                int to = Long.numberOfTrailingZeros(steps);
+                steps &= steps - 1;
 
-        // BitSet tempBitSet = canAttackWhite;
+                // the attack map misses the squares behind the king on the line of a checking slider
+                if (this.checkers == 0 || this.isLegal(Move.encode(kingSquare, to, Move.QUIET)))
+                    return true;
+            }
 
-        // tempBitSet.or(testBitSet);
+            // only the king can answer a double check
+            if (Long.bitCount(this.checkers) > 1)
+                return false;
+        }
 
-        // if (tempBitSet.get((to.getRow() * 8) + to.getCol()) == true)
-        //     tempBitSet.set((to.getRow() * 8) + to.getCol(), false);
+        int count = this.generatePseudoLegalMoves(this.lookupMoves);
 
-        // if (movingPiece instanceof Pawn) {
-        //     if (to.getRow() + 1 <= 7)
-        //         tempBitSet.set(((to.getRow() + 1) * 8) + to.getCol(), false);
-        // }
+        for (int i = 0; i < count; i++) {
 
-        // this.printBitSet(tempBitSet);
+            if (this.isLegal(this.lookupMoves[i]))
+                return true;
+        }
 
-        // System.out.println(canReach);
+        return false;
     }
 
-    public void movePieceCapturing(Location from, Location to) {
+    /**
+     * @return true if the side to move is checkmated
+     */
+    public boolean isCheckmate() {
+
+        return this.isInCheck() && this.hasLegalMove() == false;
+    }
 
-        this.board[to.getRow()][to.getCol()] = null;
+    /**
+     * @return true if the side to move is not in check and has no legal move
+     */
+    public boolean isStalemate() {
 
-        Piece movingPiece = this.getPieceAt(from);
+        return this.isInCheck() == false && this.hasLegalMove() == false;
+    }
 
-        this.board[from.getRow()][from.getCol()] = null;
+    /**
+     * @param square  square index
+     * @param byColor color of the attacking side, Pieces.WHITE or Pieces.BLACK
+     * @return true if any piece of the given color attacks the square
+     */
+    public boolean isSquareAttacked(int square, int byColor) {
 
-        this.board[to.getRow()][to.getCol()] = movingPiece;
+        if (this.changedSquares == 0 && (this.staleAttackMaps & (1 << byColor)) == 0)
+            return (this.attackMaps[byColor] & (1L << square)) != 0;
 
-        movingPiece.location = to;
+        return this.isAttacked(square, byColor, this.occupancy, -1L);
     }
 
-    public Piece getPieceAt(Location loc) {
+    /**
+     * @return true if the king of the side to move is attacked
+     */
+    public boolean isInCheck() {
 
-        // return the piece in the given board location
-        return this.board[loc.getRow()][loc.getCol()];
+        return this.isKingAttacked(this.sideToMove);
     }
 
-    public boolean freeHorizontalPath(Location from, Location to) {
+    /**
+     * @param color Pieces.WHITE or Pieces.BLACK
+     * @return true if the king of the given color is attacked, e.g. after a move that exposed it
+     */
+    public boolean isKingAttacked(int color) {
 
-        int row = from.getRow();
+        long king = this.pieceBitboards[Pieces.code(color, Pieces.KING)];
 
-        int smallestColumn, biggerColumn;
+        if (king == 0)
+            return false;
 
-        if (from.getCol() < to.getCol()) {
-            smallestColumn = from.getCol() + 1;
-            biggerColumn = to.getCol() - 1;
-        } else {
-            smallestColumn = to.getCol() + 1;
-            biggerColumn = from.getCol() - 1;
-        }
+        if (color == this.sideToMove && this.checkStateStale == false)
+            return this.checkers != 0;
 
-        for (int i = smallestColumn; i <= biggerColumn; i++) {
+        return this.isSquareAttacked(Long.numberOfTrailingZeros(king), color ^ 1);
+    }
 
-            if (this.board[row][i] != null) {
-                return false;
-            }
+    /**
+     * @param color Pieces.WHITE or Pieces.BLACK
+     * @return the squares attacked by the pieces of the given color, squares of its own pieces included
+     */
+    public long getAttackMap(int color) {
+
+        if (this.changedSquares != 0)
+            this.updateSquareAttacks();
+
+        // the map of a color is only combined when it is asked for, most positions only need one
+        if ((this.staleAttackMaps & (1 << color)) != 0) {
+
+            this.attackMaps[color] = this.combineAttacks(this.colorOccupancy[color]);
+            this.staleAttackMaps &= ~(1 << color);
         }
 
-        return true;
+        return this.attackMaps[color];
     }
 
-    public boolean freeVerticalPath(Location from, Location to) {
+    /**
+     * @return the pieces giving check to the side to move
+     */
+    public long getCheckers() {
 
-        int column = from.getCol();
+        if (this.checkStateStale == true)
+            this.updateCheckState();
 
-        int smallestRow, biggerRow;
+        return this.checkers;
+    }
 
-        if (from.getRow() < to.getRow()) {
-            smallestRow = from.getRow() + 1;
-            biggerRow = to.getRow() - 1;
-        } else {
-            smallestRow = to.getRow() + 1;
-            biggerRow = from.getRow() - 1;
+    /**
+     * @return the pieces of the side to move that are pinned to their king
+     */
+    public long getPinned() {
+
+        if (this.checkStateStale == true)
+            this.updateCheckState();
+
+        return this.pinned;
+    }
+
+    /**
+     * Brings the piece attacks up to date with the squares changed since the last update
+     * only the pieces on changed squares and the sliders looking at a changed square
+     * attack other squares than before, every other piece keeps its attacks
+     */
+    private void updateSquareAttacks() {
+
+        long changed = this.changedSquares;
+        long queens = this.pieceBitboards[Pieces.WHITE_QUEEN] | this.pieceBitboards[Pieces.BLACK_QUEEN];
+        long diagonalSliders = this.pieceBitboards[Pieces.WHITE_BISHOP] | this.pieceBitboards[Pieces.BLACK_BISHOP]
+                | queens;
+        long straightSliders = this.pieceBitboards[Pieces.WHITE_ROOK] | this.pieceBitboards[Pieces.BLACK_ROOK]
+                | queens;
+
+        long affected = changed;
+
+        while (changed != 0) {
+
+            int square = Long.numberOfTrailingZeros(changed);
+            changed &= changed - 1;
+
+            affected |= (Magics.bishopAttacks(square, this.occupancy) & diagonalSliders)
+                    | (Magics.rookAttacks(square, this.occupancy) & straightSliders);
         }
 
-        for (int i = smallestRow; i <= biggerRow; i++) {
+        while (affected != 0) {
 
-            if (this.board[i][column] != null) {
-                return false;
-            }
+            int square = Long.numberOfTrailingZeros(affected);
+            affected &= affected - 1;
+
+            this.squareAttacks[square] = this.attacksOf(this.mailbox[square], square);
         }
 
-        return true;
+        this.changedSquares = 0L;
+        this.staleAttackMaps = 3;
     }
 
-    public boolean freeDiagonalPath(Location from, Location to) {
+    private long combineAttacks(long pieces) {
 
-        if (from.toString().compareTo(to.toString()) > 0) {
+        long attacks = 0L;
 
-            int tempStartRow = from.getRow() - 1;
-            int tempStartCol = from.getCol() - 1;
+        while (pieces != 0) {
 
-            int tempEndRow = to.getRow();
-            int tempEndCol = to.getCol();
+            attacks |= this.squareAttacks[Long.numberOfTrailingZeros(pieces)];
+            pieces &= pieces - 1;
+        }
 
-            while (tempStartRow > tempEndRow && tempStartCol > tempEndCol) {
+        return attacks;
+    }
 
-                if (this.board[tempStartRow--][tempStartCol--] != null) {
-                    return false;
-                }
-            }
-        } else {
+    private long attacksOf(int code, int square) {
+
+        if (code == Pieces.EMPTY)
+            return 0L;
+
+        switch (Pieces.typeOf(code)) {
+
+            case Pieces.PAWN:
+                return Bitboards.pawnAttacks(Pieces.colorOf(code), square);
+            case Pieces.KNIGHT:
+                return Bitboards.knightAttacks(square);
+            case Pieces.BISHOP:
+                return Magics.bishopAttacks(square, this.occupancy);
+            case Pieces.ROOK:
+                return Magics.rookAttacks(square, this.occupancy);
+            case Pieces.QUEEN:
+                return Magics.bishopAttacks(square, this.occupancy) | Magics.rookAttacks(square, this.occupancy);
+            default:
+                return Bitboards.kingAttacks(square);
+        }
+    }
 
-            int tempStartRow = from.getRow() + 1;
-            int tempStartCol = from.getCol() + 1;
+    /**
+     * Finds the checking and pinning pieces of the position, every mask is about the side to move
+     * only lines through the king are looked at, so the attack maps are not needed here
+     */
+    private void updateCheckState() {
 
-            int tempEndRow = to.getRow();
-            int tempEndCol = to.getCol();
+        int us = this.sideToMove;
+        int them = us ^ 1;
 
-            while (tempStartRow < tempEndRow && tempStartCol < tempEndCol) {
+        long king = this.pieceBitboards[Pieces.code(us, Pieces.KING)];
 
-                if (this.board[tempStartRow++][tempStartCol++] != null) {
-                    return false;
-                }
-            }
+        this.checkers = 0L;
+        this.pinned = 0L;
+        this.evasionMask = -1L;
+        this.checkStateStale = false;
+
+        if (king == 0)
+            return;
+
+        int kingSquare = Long.numberOfTrailingZeros(king);
+
+        this.checkers = this.attackersTo(kingSquare, them, this.occupancy);
+
+        if (this.checkers != 0) {
+
+            if ((this.checkers & (this.checkers - 1)) == 0)
+                this.evasionMask = this.checkers | Bitboards.between(kingSquare, Long.numberOfTrailingZeros(this.checkers));
+            else
+                this.evasionMask = 0L;
         }
 
-        return true;
+        int base = them * Pieces.TYPES;
+
+        long queens = this.pieceBitboards[base + Pieces.QUEEN];
+        long diagonalSliders = this.pieceBitboards[base + Pieces.BISHOP] | queens;
+        long straightSliders = this.pieceBitboards[base + Pieces.ROOK] | queens;
+
+        // sliders aiming at the king through nothing but own pieces pin a single one of them
+        long enemies = this.colorOccupancy[them];
+        long snipers = (Magics.bishopAttacks(kingSquare, enemies) & diagonalSliders)
+                | (Magics.rookAttacks(kingSquare, enemies) & straightSliders);
+
+        while (snipers != 0) {
+
+            int square = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+
+            long blockers = Bitboards.between(kingSquare, square) & this.occupancy;
+
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0)
+                this.pinned |= blockers & this.colorOccupancy[us];
+        }
     }
 
-    public boolean freeAntidiagonalPath(Location from, Location to) {
+    /**
+     * Reverse attack query, the leaper attackers are found with one table lookup each,
+     * a pawn attacks the square if a pawn of the other color on the square would attack it
+     *
+     * @param square  square index
+     * @param byColor color of the attacking side, Pieces.WHITE or Pieces.BLACK
+     * @return the pieces of the given color attacking the square
+     */
+    public long attackersTo(int square, int byColor) {
+
+        return this.attackersTo(square, byColor, this.occupancy);
+    }
 
-        if (from.toString().compareTo(to.toString()) > 0) {
+    /**
+     * @return the pieces of the given color attacking the square on the given occupancy
+     */
+    private long attackersTo(int square, int byColor, long occupied) {
 
-            int tempStartRow = from.getRow() + 1;
-            int tempStartCol = from.getCol() - 1;
+        int base = byColor * Pieces.TYPES;
 
-            int tempEndRow = to.getRow();
-            int tempEndCol = to.getCol();
+        long queens = this.pieceBitboards[base + Pieces.QUEEN];
 
-            while (tempStartRow < tempEndRow && tempStartCol > tempEndCol) {
+        return (Bitboards.pawnAttacks(byColor ^ 1, square) & this.pieceBitboards[base + Pieces.PAWN])
+                | (Bitboards.knightAttacks(square) & this.pieceBitboards[base + Pieces.KNIGHT])
+                | (Bitboards.kingAttacks(square) & this.pieceBitboards[base + Pieces.KING])
+                | (Magics.bishopAttacks(square, occupied) & (this.pieceBitboards[base + Pieces.BISHOP] | queens))
+                | (Magics.rookAttacks(square, occupied) & (this.pieceBitboards[base + Pieces.ROOK] | queens));
+    }
 
-                if (this.board[tempStartRow++][tempStartCol--] != null) {
-                    System.out.println();
-                    return false;
-                }
-            }
-        } else {
+    /**
+     * Attack test against a given occupancy, only attackers inside the alive mask are considered
+     */
+    private boolean isAttacked(int square, int byColor, long occupied, long alive) {
 
-            int tempStartRow = from.getRow() - 1;
-            int tempStartCol = from.getCol() + 1;
+        int base = byColor * Pieces.TYPES;
 
-            int tempEndRow = to.getRow();
-            int tempEndCol = to.getCol();
+        // a pawn attacks the square if a pawn of the other color on the square would attack it
+        if ((Bitboards.pawnAttacks(byColor ^ 1, square) & this.pieceBitboards[base + Pieces.PAWN] & alive) != 0)
+            return true;
 
-            while (tempStartRow > tempEndRow && tempStartCol < tempEndCol) {
+        if ((Bitboards.knightAttacks(square) & this.pieceBitboards[base + Pieces.KNIGHT] & alive) != 0)
+            return true;
 
-                if (this.board[tempStartRow--][tempStartCol++] != null) {
-                    return false;
-                }
-            }
-        }
+        if ((Bitboards.kingAttacks(square) & this.pieceBitboards[base + Pieces.KING]) != 0)
+            return true;
 
-        return true;
+        long queens = this.pieceBitboards[base + Pieces.QUEEN];
+
+        if ((Magics.bishopAttacks(square, occupied) & (this.pieceBitboards[base + Pieces.BISHOP] | queens) & alive) != 0)
+            return true;
+
+        return (Magics.rookAttacks(square, occupied) & (this.pieceBitboards[base + Pieces.ROOK] | queens) & alive) != 0;
     }
 
-    @Override
-    public String toString() {
+    /**
+     * @param code piece code, from class Pieces
+     * @return the bitboard of the given piece code
+     */
+    public long getBitboard(int code) {
 
-        String gameBoard = " abcdefgh \n";
+        return this.pieceBitboards[code];
+    }
 
-        for (int i = this.boardRows - 1; i >= 0; i--) {
+    /**
+     * @param color Pieces.WHITE or Pieces.BLACK
+     * @return the squares occupied by the given color
+     */
+    public long getColorOccupancy(int color) {
 
-            // concat the row number
-            gameBoard = gameBoard.concat(Integer.toString(i + 1));
+        return this.colorOccupancy[color];
+    }
 
-            for (int j = 0; j < this.boardColumns; j++) {
+    /**
+     * @return the squares occupied by any piece
+     */
+    public long getOccupancy() {
 
-                gameBoard += ((this.board[i][j] != null) ? this.board[i][j].toString() : " ");
-            }
+        return this.occupancy;
+    }
+
+    /**
+     * @param square square index, ROW * 8 + COLUMN
+     * @return the code of the piece on the square, Pieces.EMPTY if there is none
+     */
+    public int getPieceCode(int square) {
+
+        return this.mailbox[square];
+    }
+
+    /**
+     * @param color Pieces.WHITE or Pieces.BLACK
+     * @return the square of the king of the given color, NO_SQUARE if it is not on the board
+     */
+    public int getKingSquare(int color) {
+
+        long king = this.pieceBitboards[Pieces.code(color, Pieces.KING)];
+
+        return (king == 0) ? NO_SQUARE : Long.numberOfTrailingZeros(king);
+    }
+
+    /**
+     * @return the color to play, Pieces.WHITE or Pieces.BLACK
+     */
+    public int getSideToMove() {
+
+        return this.sideToMove;
+    }
+
+    /**
+     * Changes the side to move, used to set up a position piece by piece with putPiece
+     *
+     * @param color Pieces.WHITE or Pieces.BLACK
+     */
+    public void setSideToMove(int color) {
+
+        if (color != this.sideToMove)
+            this.hashKey ^= Zobrist.side();
+
+        this.sideToMove = color;
+        this.checkStateStale = true;
+    }
+
+    /**
+     * @return the castling rights, a combination of the castling constants
+     */
+    public int getCastlingRights() {
+
+        return this.castlingRights;
+    }
+
+    /**
+     * @return the en passant square, NO_SQUARE if there is none
+     */
+    public int getEnPassantSquare() {
 
-            // concat row number and newline
-            gameBoard = gameBoard.concat(Integer.toString(i + 1) + "\n");
+        return this.enPassantSquare;
+    }
+
+    /**
+     * @return the Zobrist key of the position, covering pieces, side to move,
+     *         castling rights and the en passant column when a capture is possible
+     */
+    public long getHashKey() {
+
+        return this.hashKey;
+    }
+
+    /**
+     * Computes the Zobrist key from scratch, the incremental key must always be equal to it
+     *
+     * @return the Zobrist key of the position
+     */
+    public long computeHashKey() {
+
+        long key = 0L;
+
+        for (int square = 0; square < 64; square++) {
+
+            if (this.mailbox[square] != Pieces.EMPTY)
+                key ^= Zobrist.piece(this.mailbox[square], square);
         }
 
-        gameBoard = gameBoard.concat(" abcdefgh \n");
+        key ^= Zobrist.castling(this.castlingRights) ^ this.capturableEnPassantKey();
 
-        return gameBoard;
+        if (this.sideToMove == Pieces.BLACK)
+            key ^= Zobrist.side();
+
+        return key;
     }
 
-    public int chebyshevDistance(Location from, Location to) {
+    /**
+     * @return the middlegame piece-square sum of the position from white's point of view
+     */
+    public int getMiddlegameScore() {
 
-        return Math.max(Math.abs(from.getRow() - to.getRow()), Math.abs(from.getCol() - to.getCol()));
+        return this.middlegameScore;
     }
 
-    public void printBitSet(BitSet toManipulate) {
+    /**
+     * @return the endgame piece-square sum of the position from white's point of view
+     */
+    public int getEndgameScore() {
 
-        StringBuilder setToPrint = new StringBuilder();
+        return this.endgameScore;
+    }
+
+    /**
+     * @return the game phase of the material on the board, PieceSquareTables.MAX_PHASE
+     *         for the starting material, more after promotions
+     */
+    public int getPhase() {
+
+        return this.phase;
+    }
+
+    public int getHalfmoveClock() {
+
+        return this.halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+
+        return this.fullmoveNumber;
+    }
+
+    /**
+     * @param loc board location
+     * @return the square index of the location, ROW * 8 + COLUMN
+     */
+    public static int squareOf(Location loc) {
+
+        return loc.getSquare();
+    }
+
+    public Piece getPieceAt(Location loc) {
+
+        if (this.pieceViewStale == true)
+            this.refreshPieceView();
+
+        // return the piece in the given board location
+        return this.board[loc.getRow()][loc.getCol()];
+    }
+
+    /**
+     * Brings the Piece objects in line with the bitboards, pieces whose square
+     * still holds the same piece code are kept so only moved pieces are created again
+     */
+    private void refreshPieceView() {
 
         for (int i = 0; i < this.boardRows; i++) {
 
             for (int j = 0; j < this.boardColumns; j++) {
 
-                setToPrint.append((toManipulate.get((i * 8) + j) == true) ? "1" : ".");
+                int code = this.mailbox[(i * 8) + j];
+                Piece current = this.board[i][j];
+
+                if (code == Pieces.EMPTY) {
+
+                    this.board[i][j] = null;
+                } else if (current == null || current.getType() != Pieces.typeOf(code)
+                        || current.color.ordinal() != Pieces.colorOf(code)) {
+
+                    this.board[i][j] = this.createPiece(code, Location.of((i * 8) + j));
+                } else if (current.location.getRow() != i || current.location.getCol() != j) {
+
+                    current.location = Location.of((i * 8) + j);
+                }
             }
-            setToPrint.append("\n");
         }
 
-        System.out.println(setToPrint);
+        this.pieceViewStale = false;
     }
 
-    public void printCanAttack(Color givenColor) {
+    private Piece createPiece(int code, Location loc) {
 
-        BitSet toManipulate;
+        Color color = (Pieces.colorOf(code) == Pieces.WHITE) ? Color.WHITE : Color.BLACK;
 
-        if (givenColor == Color.WHITE)
-            toManipulate = this.canAttackWhite;
-        else
-            toManipulate = this.canAttackBlack;
+        switch (Pieces.typeOf(code)) {
+
+            case Pieces.PAWN:
+                return new Pawn(color, loc, this);
+            case Pieces.KNIGHT:
+                return new Knight(color, loc, this);
+            case Pieces.BISHOP:
+                return new Bishop(color, loc, this);
+            case Pieces.ROOK:
+                return new Rook(color, loc, this);
+            case Pieces.QUEEN:
+                return new Queen(color, loc, this);
+            default:
+                return new King(color, loc, this);
+        }
+    }
+
+    public boolean freeHorizontalPath(Location from, Location to) {
+
+        return this.freePath(from, to);
+    }
+
+    public boolean freeVerticalPath(Location from, Location to) {
+
+        return this.freePath(from, to);
+    }
+
+    public boolean freeDiagonalPath(Location from, Location to) {
+
+        return this.freePath(from, to);
+    }
+
+    public boolean freeAntidiagonalPath(Location from, Location to) {
+
+        return this.freePath(from, to);
+    }
+
+    /**
+     * Checks that no piece stands between two aligned locations with a single table lookup
+     *
+     * @param from starting location of the slide
+     * @param to   ending location of the slide
+     * @return true if every square strictly between the locations is empty
+     */
+    public boolean freePath(Location from, Location to) {
+
+        return (Bitboards.between(squareOf(from), squareOf(to)) & this.occupancy) == 0;
+    }
+
+    @Override
+    public String toString() {
+
+        return this.appendTo(new StringBuilder(110)).toString();
+    }
+
+    /**
+     * Appends the board as text, white at the bottom, framed by the column letters and row numbers
+     *
+     * @param text builder to append to
+     * @return the given builder
+     */
+    public StringBuilder appendTo(StringBuilder text) {
+
+        text.append(" abcdefgh \n");
+
+        for (int i = this.boardRows - 1; i >= 0; i--) {
+
+            // the row number on both sides
+            text.append(i + 1);
+
+            for (int j = 0; j < this.boardColumns; j++) {
+
+                text.append(Pieces.symbolOf(this.mailbox[(i * 8) + j]));
+            }
+
+            text.append(i + 1).append('\n');
+        }
+
+        text.append(" abcdefgh \n");
+
+        return text;
+    }
+
+    public void printBitSet(long toManipulate) {
 
         StringBuilder setToPrint = new StringBuilder();
 
@@ -352,10 +1803,17 @@ public class Board {
 
             for (int j = 0; j < this.boardColumns; j++) {
 
-                setToPrint.append((toManipulate.get((i * 8) + j) == true) ? "1" : ".");
+                setToPrint.append(((toManipulate & (1L << ((i * 8) + j))) != 0) ? "1" : ".");
             }
             setToPrint.append("\n");
         }
+
+        System.out.println(setToPrint);
+    }
+
+    public void printCanAttack(Color givenColor) {
+
+        this.printBitSet(this.getAttackMap((givenColor == Color.WHITE) ? Pieces.WHITE : Pieces.BLACK));
     }
 
     public boolean sameDiagonal(Piece piece1, Piece piece2) {
@@ -366,17 +1824,4 @@ public class Board {
 
         return true;
     }
-
-    public boolean knightMoveCheck(int startingColumn, int endingColumn, int startingRow, int endingRow) {
-
-        if ((startingColumn + 1 == endingColumn || startingColumn - 1 == endingColumn)
-                && (startingRow + 2 == endingRow || startingRow - 2 == endingRow))
-            return true;
-
-        if ((startingColumn + 2 == endingColumn || startingColumn - 2 == endingColumn)
-                && (startingRow + 1 == endingRow || startingRow - 1 == endingRow))
-            return true;
-
-        return false;
-    }
 }
@@ -0,0 +1,120 @@
+package board;
+
+/**
+ * Class Move, part of package board
+ * Moves are packed into the low 16 bits of an int so move lists are plain int arrays
+ * bits 0-5 hold the starting square, bits 6-11 the ending square and bits 12-15 the flags
+ * squares are indexed ROW * 8 + COLUMN like the bitboards
+ */
+public final class Move {
+
+    // no move, a1 to a1 can never be played
+    public static final int NONE = 0;
+
+    // no position has more legal moves than this
+    public static final int MAX_MOVES = 256;
+
+    // move flags, bit 2 marks captures and bit 3 marks promotions
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PAWN_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int KNIGHT_PROMOTION = 8;
+    public static final int BISHOP_PROMOTION = 9;
+    public static final int ROOK_PROMOTION = 10;
+    public static final int QUEEN_PROMOTION = 11;
+    public static final int KNIGHT_PROMOTION_CAPTURE = 12;
+    public static final int BISHOP_PROMOTION_CAPTURE = 13;
+    public static final int ROOK_PROMOTION_CAPTURE = 14;
+    public static final int QUEEN_PROMOTION_CAPTURE = 15;
+
+    private static final String columns = "abcdefgh";
+    private static final String promotionSymbols = "nbrq";
+
+    private Move() {
+    }
+
+    /**
+     * @param from  starting square index
+     * @param to    ending square index
+     * @param flags one of the flag constants
+     * @return the packed move
+     */
+    public static int encode(int from, int to, int flags) {
+
+        return from | (to << 6) | (flags << 12);
+    }
+
+    public static int from(int move) {
+
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int flags(int move) {
+
+        return (move >>> 12) & 0xF;
+    }
+
+    public static boolean isCapture(int move) {
+
+        return (move & (CAPTURE << 12)) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+
+        return (move & (KNIGHT_PROMOTION << 12)) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+
+        int flags = flags(move);
+
+        return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+    }
+
+    /**
+     * @param move a promotion move
+     * @return the piece type the pawn is promoted to, from class Pieces
+     */
+    public static int promotionType(int move) {
+
+        return Pieces.KNIGHT + (flags(move) & 3);
+    }
+
+    /**
+     * Appends the move in coordinate notation, e.g. "e2e4" or "e7e8q"
+     *
+     * @param move    packed move
+     * @param builder builder to append to
+     * @return the given builder
+     */
+    public static StringBuilder appendTo(int move, StringBuilder builder) {
+
+        int from = from(move);
+        int to = to(move);
+
+        builder.append(columns.charAt(from & 7)).append((char) ('1' + (from >>> 3)));
+        builder.append(columns.charAt(to & 7)).append((char) ('1' + (to >>> 3)));
+
+        if (isPromotion(move))
+            builder.append(promotionSymbols.charAt(flags(move) & 3));
+
+        return builder;
+    }
+
+    /**
+     * @param move packed move
+     * @return the move in coordinate notation, e.g. "e2e4" or "e7e8q"
+     */
+    public static String toString(int move) {
+
+        return appendTo(move, new StringBuilder(5)).toString();
+    }
+}
@@ -0,0 +1,87 @@
+package board;
+
+/**
+ * Class Pieces, part of package board
+ * Primitive piece codes used by the bitboard representation of the board
+ * a piece code is color * 6 + type, so the twelve codes index the bitboard array
+ * colors follow the ordinal of enums.Color (white 0, black 1)
+ */
+public final class Pieces {
+
+    public static final int EMPTY = -1;
+
+    // piece types
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    public static final int TYPES = 6;
+
+    // colors, same order as enums.Color
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    // piece codes
+    public static final int WHITE_PAWN = 0;
+    public static final int WHITE_KNIGHT = 1;
+    public static final int WHITE_BISHOP = 2;
+    public static final int WHITE_ROOK = 3;
+    public static final int WHITE_QUEEN = 4;
+    public static final int WHITE_KING = 5;
+    public static final int BLACK_PAWN = 6;
+    public static final int BLACK_KNIGHT = 7;
+    public static final int BLACK_BISHOP = 8;
+    public static final int BLACK_ROOK = 9;
+    public static final int BLACK_QUEEN = 10;
+    public static final int BLACK_KING = 11;
+
+    public static final int CODES = 12;
+
+    // symbol of every piece code, same letters as the Piece toString methods
+    public static final String SYMBOLS = "PNBRQKpnbrqk";
+
+    private Pieces() {
+    }
+
+    /**
+     * Builds the piece code of the given color and type
+     *
+     * @param color piece color, WHITE or BLACK
+     * @param type  piece type, PAWN to KING
+     * @return the piece code
+     */
+    public static int code(int color, int type) {
+
+        return color * TYPES + type;
+    }
+
+    /**
+     * @param code a non empty piece code
+     * @return the color of the piece code
+     */
+    public static int colorOf(int code) {
+
+        return (code < TYPES) ? WHITE : BLACK;
+    }
+
+    /**
+     * @param code a non empty piece code
+     * @return the type of the piece code
+     */
+    public static int typeOf(int code) {
+
+        return (code < TYPES) ? code : code - TYPES;
+    }
+
+    /**
+     * @param code piece code, or EMPTY
+     * @return the board symbol of the code, a space for EMPTY
+     */
+    public static char symbolOf(int code) {
+
+        return (code == EMPTY) ? ' ' : SYMBOLS.charAt(code);
+    }
+}
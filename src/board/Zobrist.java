@@ -0,0 +1,99 @@
+package board;
+
+/**
+ * Class Zobrist, part of package board
+ * Random 64-bit keys whose exclusive or identifies a position
+ * one key per piece code and square, one for black to move, one per set of
+ * castling rights and one per en passant column
+ * the keys come from a fixed seed so hashes are the same on every run
+ */
+public final class Zobrist {
+
+    private static final long[] PIECE_SQUARE = new long[Pieces.CODES * 64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_COLUMN = new long[8];
+    private static final long SIDE;
+
+    static {
+
+        long seed = 0x5A0B5157C0FFEE11L;
+
+        for (int i = 0; i < PIECE_SQUARE.length; i++) {
+
+            seed = nextSeed(seed);
+            PIECE_SQUARE[i] = mix(seed);
+        }
+
+        // every combination of rights gets its own key so updates are a single lookup
+        for (int i = 1; i < CASTLING.length; i++) {
+
+            seed = nextSeed(seed);
+            CASTLING[i] = mix(seed);
+        }
+
+        for (int i = 0; i < EN_PASSANT_COLUMN.length; i++) {
+
+            seed = nextSeed(seed);
+            EN_PASSANT_COLUMN[i] = mix(seed);
+        }
+
+        seed = nextSeed(seed);
+        SIDE = mix(seed);
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param code   piece code, from class Pieces
+     * @param square square index
+     * @return the key of the piece standing on the square
+     */
+    public static long piece(int code, int square) {
+
+        return PIECE_SQUARE[(code * 64) + square];
+    }
+
+    /**
+     * @param rights castling rights, combination of the Board castling constants
+     * @return the key of the castling rights, 0 when there are none
+     */
+    public static long castling(int rights) {
+
+        return CASTLING[rights];
+    }
+
+    /**
+     * The board only hashes this key while a pawn of the side to move can capture en passant,
+     * otherwise the position would not repeat the same position reached without a double push
+     *
+     * @param square en passant square, Board.NO_SQUARE for none
+     * @return the key of the en passant column, 0 when there is none
+     */
+    public static long enPassant(int square) {
+
+        return (square == Board.NO_SQUARE) ? 0L : EN_PASSANT_COLUMN[square & 7];
+    }
+
+    /**
+     * @return the key toggled when black is to move
+     */
+    public static long side() {
+
+        return SIDE;
+    }
+
+    private static long nextSeed(long seed) {
+
+        return seed + 0x9E3779B97F4A7C15L;
+    }
+
+    // splitmix64 finalizer
+    private static long mix(long z) {
+
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,219 @@
+package book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Random;
+
+import board.Board;
+import board.Move;
+import board.Pieces;
+
+/**
+ * Class OpeningBook, part of package book
+ * Opening moves keyed by position, read from a file of fixed 16 byte records sorted by key
+ * the records follow the Polyglot layout: long key, short move, short weight, int learn (unused),
+ * big endian, with the Polyglot move encoding, the keys are the Zobrist keys of class Board
+ * so Polyglot books made by other programs cannot be read
+ * the file is memory mapped and searched in place, opening it reads nothing
+ */
+public class OpeningBook implements Closeable {
+
+    public static final int RECORD_SIZE = 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private final int recordCount;
+
+    // one buffer per thread, probing allocates nothing
+    private final ThreadLocal<int[]> moveBuffers = ThreadLocal.withInitial(() -> new int[Move.MAX_MOVES]);
+
+    /**
+     * Opens and maps a book, a single mapping limits the file to 2 GB
+     *
+     * @param path book file
+     * @throws IOException if the file cannot be read or is not made of whole records
+     */
+    public OpeningBook(Path path) throws IOException {
+
+        this.channel = FileChannel.open(path);
+
+        long size = this.channel.size();
+
+        if (size % RECORD_SIZE != 0 || size > Integer.MAX_VALUE) {
+
+            this.channel.close();
+            throw new IOException("Not an opening book or larger than 2 GB: " + path);
+        }
+
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        this.recordCount = (int) (size / RECORD_SIZE);
+    }
+
+    public int getRecordCount() {
+
+        return this.recordCount;
+    }
+
+    /**
+     * Picks a book move of a position, moves are chosen with a chance proportional to their weight
+     *
+     * @param board  position to look up
+     * @param random source of the choice
+     * @return a legal move of the position, Move.NONE if the book does not hold the position
+     */
+    public int probe(Board board, Random random) {
+
+        int first = this.firstRecord(board.getHashKey());
+
+        if (first == -1)
+            return Move.NONE;
+
+        long key = board.getHashKey();
+        long totalWeight = 0;
+
+        for (int i = first; i < this.recordCount && this.keyAt(i) == key; i++) {
+            totalWeight += this.weightAt(i);
+        }
+
+        if (totalWeight == 0)
+            return Move.NONE;
+
+        long pick = (long) (random.nextDouble() * totalWeight);
+
+        for (int i = first; i < this.recordCount && this.keyAt(i) == key; i++) {
+
+            pick -= this.weightAt(i);
+
+            if (pick < 0)
+                return decodeMove(board, this.buffer.getShort((i * RECORD_SIZE) + 8) & 0xFFFF,
+                        this.moveBuffers.get());
+        }
+
+        return Move.NONE;
+    }
+
+    /**
+     * Lists the book moves of a position
+     *
+     * @param board   position to look up
+     * @param moves   buffer receiving the legal book moves
+     * @param weights buffer receiving the weight of every move
+     * @return the number of moves written
+     */
+    public int getMoves(Board board, int[] moves, int[] weights) {
+
+        int first = this.firstRecord(board.getHashKey());
+
+        if (first == -1)
+            return 0;
+
+        long key = board.getHashKey();
+        int count = 0;
+
+        for (int i = first; i < this.recordCount && this.keyAt(i) == key && count < moves.length; i++) {
+
+            int move = decodeMove(board, this.buffer.getShort((i * RECORD_SIZE) + 8) & 0xFFFF, this.moveBuffers.get());
+
+            if (move == Move.NONE)
+                continue;
+
+            moves[count] = move;
+            weights[count] = this.weightAt(i);
+            count++;
+        }
+
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        this.channel.close();
+    }
+
+    // binary search for the first record of a key, -1 if there is none
+    private int firstRecord(long key) {
+
+        int low = 0;
+        int high = this.recordCount;
+
+        while (low < high) {
+
+            int middle = (low + high) >>> 1;
+
+            if (Long.compareUnsigned(this.keyAt(middle), key) < 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+
+        return (low < this.recordCount && this.keyAt(low) == key) ? low : -1;
+    }
+
+    private long keyAt(int record) {
+
+        return this.buffer.getLong(record * RECORD_SIZE);
+    }
+
+    private int weightAt(int record) {
+
+        return this.buffer.getShort((record * RECORD_SIZE) + 10) & 0xFFFF;
+    }
+
+    /**
+     * Packs a move with the Polyglot encoding, to square in bits 0-5, from square in bits 6-11
+     * and promotion piece in bits 12-14, castling is written as the king taking its own rook
+     *
+     * @param move packed move, see class Move
+     * @return the book encoding of the move
+     */
+    public static int encodeMove(int move) {
+
+        int from = Move.from(move);
+        int to = Move.to(move);
+
+        if (Move.flags(move) == Move.KING_CASTLE)
+            to = from + 3;
+        else if (Move.flags(move) == Move.QUEEN_CASTLE)
+            to = from - 4;
+
+        int promotion = Move.isPromotion(move) ? Move.promotionType(move) : 0;
+
+        return to | (from << 6) | (promotion << 12);
+    }
+
+    /**
+     * @param board    position the move is played in
+     * @param bookMove book encoding of the move
+     * @param moves    buffer for the legal moves of the position
+     * @return the legal move, Move.NONE if the book move is not legal in the position
+     */
+    public static int decodeMove(Board board, int bookMove, int[] moves) {
+
+        int to = bookMove & 63;
+        int from = (bookMove >>> 6) & 63;
+        int promotion = (bookMove >>> 12) & 7;
+
+        // the king taking its own rook stands for castling
+        if (board.getPieceCode(from) == Pieces.code(board.getSideToMove(), Pieces.KING)
+                && board.getPieceCode(to) == Pieces.code(board.getSideToMove(), Pieces.ROOK))
+            to = (to > from) ? from + 2 : from - 2;
+
+        int count = board.generateLegalMoves(moves);
+
+        for (int i = 0; i < count; i++) {
+
+            int move = moves[i];
+
+            if (Move.from(move) == from && Move.to(move) == to
+                    && (Move.isPromotion(move) ? Move.promotionType(move) : 0) == promotion)
+                return move;
+        }
+
+        return Move.NONE;
+    }
+}
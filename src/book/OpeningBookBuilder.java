@@ -0,0 +1,207 @@
+package book;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import board.Board;
+import board.Pieces;
+import exceptions.InvalidFenException;
+import pgn.PgnGame;
+import pgn.PgnImporter;
+import pgn.PgnListener;
+
+/**
+ * Class OpeningBookBuilder, part of package book
+ * Builds an opening book from the first moves of the games of a PGN file
+ * every move gets 2 points when its side won the game, 1 for a draw or an unknown result
+ * and none for a loss, the points of a position and move are its weight in the book
+ */
+public class OpeningBookBuilder implements PgnListener {
+
+    public static final int DEFAULT_MAX_PLY = 30;
+
+    private final int maxPly;
+
+    // points per position and book move
+    private final Map<Entry, AtomicLong> points = new ConcurrentHashMap<Entry, AtomicLong>();
+
+    // one board per importing thread to walk through the positions of a game
+    private final ThreadLocal<Board> boards = ThreadLocal.withInitial(Board::new);
+
+    /**
+     * @param maxPly number of plies of every game added to the book
+     */
+    public OpeningBookBuilder(int maxPly) {
+
+        this.maxPly = maxPly;
+    }
+
+    @Override
+    public void gameImported(PgnGame game, int[] moves, int moveCount, Board position) {
+
+        Board board = this.boards.get();
+
+        try {
+
+            if (game.getTag("FEN") != null)
+                board.loadFen(game.getTag("FEN"));
+            else
+                board.init();
+        } catch (InvalidFenException fenException) {
+
+            // the importer rejects games with a bad position before they get here
+            return;
+        }
+
+        String result = game.getTag("Result");
+        int plies = Math.min(moveCount, this.maxPly);
+
+        for (int i = 0; i < plies; i++) {
+
+            int points = pointsOf(result, board.getSideToMove());
+
+            if (points > 0) {
+
+                Entry entry = new Entry(board.getHashKey(), OpeningBook.encodeMove(moves[i]));
+
+                this.points.computeIfAbsent(entry, key -> new AtomicLong()).addAndGet(points);
+            }
+
+            board.makeMove(moves[i]);
+        }
+    }
+
+    private static int pointsOf(String result, int color) {
+
+        if ("1-0".equals(result))
+            return (color == Pieces.WHITE) ? 2 : 0;
+
+        if ("0-1".equals(result))
+            return (color == Pieces.BLACK) ? 2 : 0;
+
+        return 1;
+    }
+
+    /**
+     * Writes the collected moves as a book sorted by position key
+     * weights above the 16 bit limit are clamped
+     *
+     * @param path book file, an existing file is overwritten
+     * @return the number of records written
+     * @throws IOException if the file cannot be written
+     */
+    public int write(Path path) throws IOException {
+
+        List<Entry> entries = new ArrayList<Entry>(this.points.keySet());
+
+        // the book is searched with unsigned key order, the best moves of a position come first
+        entries.sort((first, second) -> {
+
+            int byKey = Long.compareUnsigned(first.key, second.key);
+
+            if (byKey != 0)
+                return byKey;
+
+            return Long.compare(this.points.get(second).get(), this.points.get(first).get());
+        });
+
+        ByteBuffer buffer = ByteBuffer.allocate(OpeningBook.RECORD_SIZE * 4096);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            for (Entry entry : entries) {
+
+                if (buffer.remaining() < OpeningBook.RECORD_SIZE)
+                    writeAll(channel, buffer);
+
+                buffer.putLong(entry.key);
+                buffer.putShort((short) entry.move);
+                buffer.putShort((short) Math.min(0xFFFF, this.points.get(entry).get()));
+                buffer.putInt(0);
+            }
+
+            writeAll(channel, buffer);
+        }
+
+        return entries.size();
+    }
+
+    private static void writeAll(FileChannel channel, ByteBuffer buffer) throws IOException {
+
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+    /**
+     * Position key and book move, the key of the points map
+     */
+    private static final class Entry {
+
+        final long key;
+        final int move;
+
+        Entry(long key, int move) {
+
+            this.key = key;
+            this.move = move;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+
+            if (other instanceof Entry == false)
+                return false;
+
+            Entry entry = (Entry) other;
+
+            return this.key == entry.key && this.move == entry.move;
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Long.hashCode(this.key * 31 + this.move);
+        }
+    }
+
+    /**
+     * Command line entry point, java book.OpeningBookBuilder games.pgn book.bin [plies]
+     */
+    public static void main(String[] args) throws IOException {
+
+        if (args.length < 2) {
+
+            System.out.println("Usage: java book.OpeningBookBuilder <games.pgn> <book file> [plies]");
+            return;
+        }
+
+        int maxPly = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_MAX_PLY;
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(maxPly);
+
+        PgnImporter importer = new PgnImporter(Runtime.getRuntime().availableProcessors(),
+                PgnImporter.DEFAULT_QUEUE_CAPACITY);
+        importer.setProgress(System.out);
+
+        System.out.println(importer.importFile(Paths.get(args[0]), builder));
+
+        int records = builder.write(Paths.get(args[1]));
+
+        System.out.println("Book written to " + args[1] + ", " + records + " moves");
+    }
+}
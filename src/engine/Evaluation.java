@@ -0,0 +1,69 @@
+package engine;
+
+import board.Board;
+import board.PieceSquareTables;
+import board.Pieces;
+
+/**
+ * Class Evaluation, part of package engine
+ * Static evaluation of a position in centipawns from the side to move's point of view
+ * material and piece-square values are kept up to date by the board on every move,
+ * the evaluation only blends the middlegame and endgame sums by the game phase
+ */
+public final class Evaluation {
+
+    // material value per piece type, used to order captures, the king is never traded
+    public static final int[] PIECE_VALUES = { 100, 320, 330, 500, 900, 0 };
+
+    private Evaluation() {
+    }
+
+    /**
+     * @param board position to evaluate
+     * @return the score of the position for the side to move
+     */
+    public static int evaluate(Board board) {
+
+        int score = taper(board.getMiddlegameScore(), board.getEndgameScore(), board.getPhase());
+
+        return (board.getSideToMove() == Pieces.WHITE) ? score : -score;
+    }
+
+    /**
+     * Evaluates the position by scanning every square, the result must always
+     * be equal to evaluate, used to check the incremental sums
+     *
+     * @param board position to evaluate
+     * @return the score of the position for the side to move
+     */
+    public static int evaluateFromScratch(Board board) {
+
+        int middlegame = 0;
+        int endgame = 0;
+        int phase = 0;
+
+        for (int square = 0; square < 64; square++) {
+
+            int code = board.getPieceCode(square);
+
+            if (code == Pieces.EMPTY)
+                continue;
+
+            middlegame += PieceSquareTables.middlegame(code, square);
+            endgame += PieceSquareTables.endgame(code, square);
+            phase += PieceSquareTables.phase(code);
+        }
+
+        int score = taper(middlegame, endgame, phase);
+
+        return (board.getSideToMove() == Pieces.WHITE) ? score : -score;
+    }
+
+    // promotions can push the phase past the starting material
+    private static int taper(int middlegame, int endgame, int phase) {
+
+        phase = Math.min(phase, PieceSquareTables.MAX_PHASE);
+
+        return ((middlegame * phase) + (endgame * (PieceSquareTables.MAX_PHASE - phase))) / PieceSquareTables.MAX_PHASE;
+    }
+}
@@ -0,0 +1,231 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import board.Board;
+import tablebase.Tablebase;
+
+/**
+ * Class ParallelSearch, part of package engine
+ * Lazy SMP search, every thread runs its own Search on its own copy of the board
+ * and undo stack, the threads only share the transposition table
+ * the calling thread runs the main search that decides the move and reports the
+ * iterations, helper threads search the same root at staggered depths and fill the table
+ * with one thread no helper is started and the search is deterministic
+ */
+public class ParallelSearch {
+
+    private final TranspositionTable table;
+
+    private Search[] workers;
+
+    private ExecutorService helperPool;
+
+    private Consumer<SearchResult> listener;
+
+    private Tablebase tablebase;
+
+    /**
+     * Constructor of a parallel search sharing the given table
+     *
+     * @param threads number of search threads, at least 1
+     * @param table   transposition table shared by all threads
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+
+        this.table = table;
+        this.setThreads(threads);
+    }
+
+    /**
+     * Changes the number of search threads, must not be called during a search
+     *
+     * @param threads number of search threads, at least 1
+     */
+    public void setThreads(int threads) {
+
+        threads = Math.max(1, threads);
+
+        this.shutdown();
+
+        this.workers = new Search[threads];
+
+        for (int i = 0; i < threads; i++) {
+
+            this.workers[i] = new Search(this.table);
+            this.workers[i].setTablebase(this.tablebase);
+        }
+
+        if (threads > 1) {
+
+            this.helperPool = Executors.newFixedThreadPool(threads - 1, runnable -> {
+
+                Thread thread = new Thread(runnable, "search-helper");
+                thread.setDaemon(true);
+
+                return thread;
+            });
+        }
+
+        this.workers[0].setListener(this::reportIteration);
+    }
+
+    /**
+     * @return the number of search threads
+     */
+    public int getThreads() {
+
+        return this.workers.length;
+    }
+
+    /**
+     * @return the transposition table shared by the threads
+     */
+    public TranspositionTable getTable() {
+
+        return this.table;
+    }
+
+    /**
+     * @param listener called with the result of every iteration of the main thread, the node
+     *                 count of the result covers all threads, may be null
+     */
+    public void setListener(Consumer<SearchResult> listener) {
+
+        this.listener = listener;
+    }
+
+    /**
+     * @param tablebase endgame tables probed by every thread, may be null
+     */
+    public void setTablebase(Tablebase tablebase) {
+
+        this.tablebase = tablebase;
+
+        for (Search worker : this.workers) {
+            worker.setTablebase(tablebase);
+        }
+    }
+
+    /**
+     * Asks every thread to stop, can be called from any thread
+     */
+    public void stop() {
+
+        for (Search worker : this.workers) {
+            worker.stop();
+        }
+    }
+
+    /**
+     * @return the nodes visited by every thread in the current or last search, main thread first
+     */
+    public long[] getThreadNodes() {
+
+        long[] nodes = new long[this.workers.length];
+
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = this.workers[i].getNodes();
+        }
+
+        return nodes;
+    }
+
+    /**
+     * @return the nodes visited by all threads in the current or last search
+     */
+    public long getTotalNodes() {
+
+        long total = 0;
+
+        for (Search worker : this.workers) {
+            total += worker.getNodes();
+        }
+
+        return total;
+    }
+
+    /**
+     * Searches the given position on all threads, the board itself is not changed
+     *
+     * @param position position to search
+     * @param limits   budget of the search, applied by the main thread which then stops the helpers
+     * @return the result of the main thread, with the nodes of all threads
+     */
+    public SearchResult search(Board position, SearchLimits limits) {
+
+        if (this.workers.length == 1)
+            return this.workers[0].search(position, limits);
+
+        this.table.newSearch();
+
+        for (Search worker : this.workers) {
+            worker.prepare();
+        }
+
+        // helpers search without a budget of their own and run until the main thread stops them
+        SearchLimits helperLimits = new SearchLimits(limits.maxDepth, 0, 0);
+
+        List<Future<SearchResult>> helpers = new ArrayList<Future<SearchResult>>(this.workers.length - 1);
+
+        for (int i = 1; i < this.workers.length; i++) {
+
+            Search helper = this.workers[i];
+
+            // half of the helpers search one ply deeper than the main thread
+            int depthOffset = i & 1;
+
+            helpers.add(this.helperPool.submit(() -> helper.iterate(position, helperLimits, depthOffset)));
+        }
+
+        SearchResult result = this.workers[0].iterate(position, limits, 0);
+
+        for (int i = 1; i < this.workers.length; i++) {
+            this.workers[i].stop();
+        }
+
+        for (Future<SearchResult> helper : helpers) {
+
+            try {
+
+                helper.get();
+            } catch (InterruptedException interrupted) {
+
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException failure) {
+
+                throw new IllegalStateException("Search helper failed", failure.getCause());
+            }
+        }
+
+        return new SearchResult(result.bestMove, result.score, result.depth, this.getTotalNodes(),
+                result.elapsedNanos, result.principalVariation);
+    }
+
+    /**
+     * Stops the helper threads, the search can not be used afterwards until setThreads is called
+     */
+    public void shutdown() {
+
+        if (this.helperPool != null) {
+
+            this.helperPool.shutdownNow();
+            this.helperPool = null;
+        }
+    }
+
+    private void reportIteration(SearchResult result) {
+
+        if (this.listener == null)
+            return;
+
+        this.listener.accept(new SearchResult(result.bestMove, result.score, result.depth, this.getTotalNodes(),
+                result.elapsedNanos, result.principalVariation));
+    }
+}
@@ -0,0 +1,535 @@
+package engine;
+
+import java.util.function.Consumer;
+
+import board.Board;
+import board.Move;
+import board.Pieces;
+import tablebase.Tablebase;
+
+/**
+ * Class Search, part of package engine
+ * Negamax alpha-beta search with iterative deepening, aspiration windows and quiescence search
+ * the search plays moves on its own copy of the position with makeMove and unmakeMove
+ * and stops when the depth, time or node budget of its SearchLimits runs out
+ * results are kept in a transposition table that may be shared with other searches
+ */
+public class Search {
+
+    public static final int MAX_PLY = 128;
+
+    public static final int INFINITY = 32500;
+    public static final int MATE = 32000;
+
+    // scores beyond this bound are mate scores
+    public static final int MATE_BOUND = MATE - MAX_PLY;
+
+    // half width of the first aspiration window, in centipawns
+    private static final int ASPIRATION_WINDOW = 50;
+
+    // the clock is read once every this many nodes, must be a power of two minus one
+    private static final int CLOCK_CHECK_MASK = 2047;
+
+    private final Board board;
+
+    private final TranspositionTable table;
+
+    // move lists and ordering scores per ply, nothing is allocated during the search
+    private final int[][] moveLists = new int[MAX_PLY + 1][Move.MAX_MOVES];
+    private final int[][] moveScores = new int[MAX_PLY + 1][Move.MAX_MOVES];
+
+    // triangular principal variation table
+    private final int[][] pvTable = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+
+    // principal variation of the last completed iteration, searched first in the next one
+    private final int[] previousPv = new int[MAX_PLY + 1];
+    private int previousPvLength;
+
+    // quiet moves that caused a beta cutoff, two per ply
+    private final int[][] killerMoves = new int[MAX_PLY + 1][2];
+
+    private long nodes;
+    private long startTime;
+    private long deadline;
+    private long nodeLimit;
+    private int currentDepth;
+
+    private volatile boolean stopped;
+
+    private Consumer<SearchResult> listener;
+
+    private Tablebase tablebase;
+
+    /**
+     * Constructor of a search working on its own board and transposition table
+     */
+    public Search() {
+
+        this(new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB));
+    }
+
+    /**
+     * Constructor of a search working on its own board
+     *
+     * @param table transposition table, may be shared with searches running on other threads
+     */
+    public Search(TranspositionTable table) {
+
+        this.board = new Board();
+        this.table = table;
+    }
+
+    /**
+     * @return the transposition table of the search
+     */
+    public TranspositionTable getTable() {
+
+        return this.table;
+    }
+
+    /**
+     * @param listener called with the result of every completed iteration, may be null
+     */
+    public void setListener(Consumer<SearchResult> listener) {
+
+        this.listener = listener;
+    }
+
+    /**
+     * @param tablebase endgame tables probed below the root, may be null
+     */
+    public void setTablebase(Tablebase tablebase) {
+
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Asks a running search to stop, the best move of the last completed iteration is returned
+     * can be called from any thread
+     */
+    public void stop() {
+
+        this.stopped = true;
+    }
+
+    /**
+     * @return nodes visited by the current or last search
+     */
+    public long getNodes() {
+
+        return this.nodes;
+    }
+
+    /**
+     * Searches the given position, the board itself is not changed
+     *
+     * @param position position to search, with the side to move to play
+     * @param limits   depth, time and node budget of the search
+     * @return the result of the deepest completed iteration, its best move is Move.NONE
+     *         when the side to move has no legal move
+     */
+    public SearchResult search(Board position, SearchLimits limits) {
+
+        this.table.newSearch();
+        this.stopped = false;
+
+        return this.iterate(position, limits, 0);
+    }
+
+    /**
+     * Clears the stop request of an earlier search, used before a search is handed to another thread
+     */
+    void prepare() {
+
+        this.stopped = false;
+    }
+
+    /**
+     * Runs the iterative deepening loop without starting a new table generation or clearing
+     * a stop request, every iteration searches depthOffset plies deeper than its number
+     * so helper threads of a parallel search spread over different depths
+     */
+    SearchResult iterate(Board position, SearchLimits limits, int depthOffset) {
+
+        this.board.copyFrom(position);
+
+        this.nodes = 0;
+        this.startTime = System.nanoTime();
+        this.deadline = (limits.moveTimeMillis > 0) ? this.startTime + (limits.moveTimeMillis * 1_000_000L)
+                : Long.MAX_VALUE;
+        this.nodeLimit = (limits.maxNodes > 0) ? limits.maxNodes : Long.MAX_VALUE;
+
+        for (int[] killers : this.killerMoves) {
+
+            killers[0] = Move.NONE;
+            killers[1] = Move.NONE;
+        }
+
+        int maxDepth = (limits.maxDepth > 0) ? Math.min(limits.maxDepth, MAX_PLY - 1) : MAX_PLY - 1;
+
+        SearchResult result = new SearchResult(Move.NONE, 0, 0, 0, 0, new int[0]);
+        int previousScore = 0;
+
+        this.previousPvLength = 0;
+
+        for (int iteration = 1; iteration <= maxDepth; iteration++) {
+
+            int depth = Math.min(iteration + depthOffset, maxDepth);
+
+            this.currentDepth = iteration;
+
+            int score = this.aspirationSearch(depth, previousScore);
+
+            // a partial iteration is thrown away
+            if (this.stopped && result.bestMove != Move.NONE)
+                break;
+
+            previousScore = score;
+
+            int[] pv = new int[this.pvLength[0]];
+            System.arraycopy(this.pvTable[0], 0, pv, 0, pv.length);
+            System.arraycopy(pv, 0, this.previousPv, 0, pv.length);
+            this.previousPvLength = pv.length;
+
+            result = new SearchResult((pv.length > 0) ? pv[0] : Move.NONE, score, depth, this.nodes,
+                    System.nanoTime() - this.startTime, pv);
+
+            if (this.listener != null)
+                this.listener.accept(result);
+
+            if (pv.length == 0 || this.stopped || result.isMateScore())
+                break;
+        }
+
+        return result;
+    }
+
+    /**
+     * Searches with a narrow window around the previous score and widens it on failure
+     */
+    private int aspirationSearch(int depth, int previousScore) {
+
+        if (depth < 4)
+            return this.negamax(depth, -INFINITY, INFINITY, 0);
+
+        int window = ASPIRATION_WINDOW;
+
+        while (true) {
+
+            int alpha = Math.max(previousScore - window, -INFINITY);
+            int beta = Math.min(previousScore + window, INFINITY);
+
+            int score = this.negamax(depth, alpha, beta, 0);
+
+            if (this.stopped || (score > alpha && score < beta) || (alpha == -INFINITY && beta == INFINITY))
+                return score;
+
+            window *= 4;
+        }
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+
+        this.pvLength[ply] = ply;
+
+        if (this.shouldStop())
+            return 0;
+
+        if (ply > 0 && (this.board.getHalfmoveClock() >= 100 || this.board.isRepetition()))
+            return 0;
+
+        // positions of the tablebase have an exact score, the root still searches for its move
+        if (ply > 0 && this.tablebase != null
+                && Long.bitCount(this.board.getOccupancy()) <= this.tablebase.getMaxPieces()) {
+
+            int result = this.tablebase.probe(this.board);
+
+            if (result != Tablebase.NOT_FOUND)
+                return tablebaseScore(result, ply);
+        }
+
+        boolean inCheck = this.board.isInCheck();
+
+        // look one ply further when in check so forced sequences are not cut short
+        if (inCheck)
+            depth++;
+
+        if (depth <= 0 || ply >= MAX_PLY - 1)
+            return this.quiescence(alpha, beta, ply);
+
+        this.nodes++;
+
+        long key = this.board.getHashKey();
+        long entry = this.table.probe(key);
+        int hashMove = Move.NONE;
+
+        if (entry != 0) {
+
+            hashMove = TranspositionTable.move(entry);
+
+            // the root always searches so it has a principal variation to report
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+
+                int hashScore = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+
+                if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER_BOUND && hashScore >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && hashScore <= alpha))
+                    return hashScore;
+            }
+        }
+
+        int[] moves = this.moveLists[ply];
+        int count = this.board.generateLegalMoves(moves);
+
+        if (count == 0)
+            return inCheck ? -MATE + ply : 0;
+
+        if (hashMove == Move.NONE && this.previousPvLength > ply)
+            hashMove = this.previousPv[ply];
+
+        this.scoreMoves(ply, count, hashMove);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+
+        for (int i = 0; i < count; i++) {
+
+            int move = this.pickMove(ply, i, count);
+
+            this.board.makeMove(move);
+            int score = -this.negamax(depth - 1, -beta, -alpha, ply + 1);
+            this.board.unmakeMove();
+
+            if (this.stopped)
+                return 0;
+
+            if (score > bestScore) {
+
+                bestScore = score;
+                bestMove = move;
+
+                if (score > alpha) {
+
+                    alpha = score;
+                    this.updatePv(ply, move);
+
+                    if (alpha >= beta) {
+
+                        if (Move.isCapture(move) == false)
+                            this.storeKiller(ply, move);
+
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = (bestScore >= beta) ? TranspositionTable.LOWER_BOUND
+                : (alpha > originalAlpha) ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+
+        this.table.store(key, bestMove, toTable(bestScore, ply), depth, bound);
+
+        return bestScore;
+    }
+
+    /**
+     * @return the search score of a tablebase result, mates are counted from the root
+     */
+    private static int tablebaseScore(int result, int ply) {
+
+        int wdl = Tablebase.wdl(result);
+
+        if (wdl == Tablebase.DRAW)
+            return 0;
+
+        int score = MATE - (ply + Tablebase.distance(result));
+
+        return (wdl == Tablebase.WIN) ? score : -score;
+    }
+
+    /**
+     * Mate scores are stored relative to the position instead of the root
+     */
+    private static int toTable(int score, int ply) {
+
+        if (score >= MATE_BOUND)
+            return score + ply;
+
+        if (score <= -MATE_BOUND)
+            return score - ply;
+
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+
+        if (score >= MATE_BOUND)
+            return score - ply;
+
+        if (score <= -MATE_BOUND)
+            return score + ply;
+
+        return score;
+    }
+
+    /**
+     * Searches captures and promotions only, until the position is quiet
+     */
+    private int quiescence(int alpha, int beta, int ply) {
+
+        this.pvLength[ply] = ply;
+
+        if (this.shouldStop())
+            return 0;
+
+        this.nodes++;
+
+        int standPat = Evaluation.evaluate(this.board);
+
+        if (ply >= MAX_PLY - 1 || standPat >= beta)
+            return standPat;
+
+        if (standPat > alpha)
+            alpha = standPat;
+
+        int[] moves = this.moveLists[ply];
+        int count = this.board.generateLegalMoves(moves);
+        int tacticalCount = 0;
+
+        for (int i = 0; i < count; i++) {
+
+            if (Move.isCapture(moves[i]) || Move.isPromotion(moves[i]))
+                moves[tacticalCount++] = moves[i];
+        }
+
+        this.scoreMoves(ply, tacticalCount, Move.NONE);
+
+        for (int i = 0; i < tacticalCount; i++) {
+
+            int move = this.pickMove(ply, i, tacticalCount);
+
+            this.board.makeMove(move);
+            int score = -this.quiescence(-beta, -alpha, ply + 1);
+            this.board.unmakeMove();
+
+            if (this.stopped)
+                return 0;
+
+            if (score > alpha) {
+
+                alpha = score;
+                this.updatePv(ply, move);
+
+                if (alpha >= beta)
+                    break;
+            }
+        }
+
+        return alpha;
+    }
+
+    /**
+     * Orders the hash or principal variation move first, then captures by most valuable victim
+     * and least valuable attacker, then killer moves, then the other quiet moves
+     */
+    private void scoreMoves(int ply, int count, int firstMove) {
+
+        int[] moves = this.moveLists[ply];
+        int[] scores = this.moveScores[ply];
+
+        for (int i = 0; i < count; i++) {
+
+            int move = moves[i];
+
+            if (move == firstMove) {
+
+                scores[i] = 1_000_000;
+            } else if (Move.isCapture(move)) {
+
+                int victim = this.board.getPieceCode(Move.to(move));
+                int victimValue = (victim == Pieces.EMPTY) ? Evaluation.PIECE_VALUES[Pieces.PAWN]
+                        : Evaluation.PIECE_VALUES[Pieces.typeOf(victim)];
+
+                scores[i] = 100_000 + (victimValue * 8)
+                        - Pieces.typeOf(this.board.getPieceCode(Move.from(move)));
+            } else if (Move.isPromotion(move)) {
+
+                scores[i] = 90_000 + Move.promotionType(move);
+            } else if (move == this.killerMoves[ply][0]) {
+
+                scores[i] = 80_000;
+            } else if (move == this.killerMoves[ply][1]) {
+
+                scores[i] = 70_000;
+            } else {
+
+                scores[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Moves the best scored of the remaining moves to the given index and returns it
+     */
+    private int pickMove(int ply, int index, int count) {
+
+        int[] moves = this.moveLists[ply];
+        int[] scores = this.moveScores[ply];
+
+        int best = index;
+
+        for (int i = index + 1; i < count; i++) {
+
+            if (scores[i] > scores[best])
+                best = i;
+        }
+
+        int move = moves[best];
+
+        moves[best] = moves[index];
+        moves[index] = move;
+
+        int score = scores[best];
+
+        scores[best] = scores[index];
+        scores[index] = score;
+
+        return move;
+    }
+
+    private void updatePv(int ply, int move) {
+
+        this.pvTable[ply][ply] = move;
+
+        for (int i = ply + 1; i < this.pvLength[ply + 1]; i++) {
+            this.pvTable[ply][i] = this.pvTable[ply + 1][i];
+        }
+
+        this.pvLength[ply] = Math.max(this.pvLength[ply + 1], ply + 1);
+    }
+
+    private void storeKiller(int ply, int move) {
+
+        if (this.killerMoves[ply][0] != move) {
+
+            this.killerMoves[ply][1] = this.killerMoves[ply][0];
+            this.killerMoves[ply][0] = move;
+        }
+    }
+
+    private boolean shouldStop() {
+
+        // the budget never cuts the first iteration short so there is always a move to play
+        if (this.stopped || this.currentDepth == 1)
+            return this.stopped;
+
+        if (this.nodes >= this.nodeLimit
+                || ((this.nodes & CLOCK_CHECK_MASK) == 0 && System.nanoTime() >= this.deadline))
+            this.stopped = true;
+
+        return this.stopped;
+    }
+}
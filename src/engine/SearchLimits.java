@@ -0,0 +1,60 @@
+package engine;
+
+/**
+ * Class SearchLimits, part of package engine
+ * Budget of a single search, a value of 0 means no limit
+ * the search always finishes at least the first iteration
+ */
+public class SearchLimits {
+
+    public final int maxDepth;
+    public final long moveTimeMillis;
+    public final long maxNodes;
+
+    /**
+     * Constructor of the limits of a search
+     *
+     * @param maxDepth       deepest iteration to search, 0 for no limit
+     * @param moveTimeMillis time available for the move in milliseconds, 0 for no limit
+     * @param maxNodes       number of nodes the search may visit, 0 for no limit
+     */
+    public SearchLimits(int maxDepth, long moveTimeMillis, long maxNodes) {
+
+        this.maxDepth = maxDepth;
+        this.moveTimeMillis = moveTimeMillis;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * @param depth depth to search to
+     * @return limits stopping after the given depth
+     */
+    public static SearchLimits depth(int depth) {
+
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    /**
+     * @param millis time available for the move
+     * @return limits stopping after the given time
+     */
+    public static SearchLimits moveTime(long millis) {
+
+        return new SearchLimits(0, millis, 0);
+    }
+
+    /**
+     * @param nodes nodes the search may visit
+     * @return limits stopping after the given number of nodes
+     */
+    public static SearchLimits nodes(long nodes) {
+
+        return new SearchLimits(0, 0, nodes);
+    }
+
+    @Override
+    public String toString() {
+
+        return "depth " + this.maxDepth + ", movetime " + this.moveTimeMillis + " ms, nodes " + this.maxNodes;
+    }
+}
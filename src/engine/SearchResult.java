@@ -0,0 +1,83 @@
+package engine;
+
+import board.Move;
+
+/**
+ * Class SearchResult, part of package engine
+ * Outcome of a completed search iteration
+ */
+public class SearchResult {
+
+    public final int bestMove;
+    public final int score;
+    public final int depth;
+    public final long nodes;
+    public final long elapsedNanos;
+
+    // principal variation, the best line of play found, starting with the best move
+    public final int[] principalVariation;
+
+    public SearchResult(int bestMove, int score, int depth, long nodes, long elapsedNanos, int[] principalVariation) {
+
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+        this.principalVariation = principalVariation;
+    }
+
+    /**
+     * @return nodes visited per second
+     */
+    public long nodesPerSecond() {
+
+        return (this.nodes * 1_000_000_000L) / Math.max(1, this.elapsedNanos);
+    }
+
+    /**
+     * @return true if the score announces a forced mate for either side
+     */
+    public boolean isMateScore() {
+
+        return Math.abs(this.score) >= Search.MATE_BOUND;
+    }
+
+    /**
+     * @return the number of moves to the announced mate, negative when the side to move gets mated
+     */
+    public int mateInMoves() {
+
+        int plies = Search.MATE - Math.abs(this.score);
+
+        return (this.score > 0) ? (plies + 1) / 2 : -(plies / 2);
+    }
+
+    /**
+     * @return the principal variation as moves in coordinate notation separated by spaces
+     */
+    public String principalVariationString() {
+
+        StringBuilder line = new StringBuilder();
+
+        for (int i = 0; i < this.principalVariation.length; i++) {
+
+            if (i > 0)
+                line.append(' ');
+
+            Move.appendTo(this.principalVariation[i], line);
+        }
+
+        return line.toString();
+    }
+
+    @Override
+    public String toString() {
+
+        String scoreString = this.isMateScore() ? "mate " + this.mateInMoves() : "cp " + this.score;
+
+        return "depth " + this.depth + " score " + scoreString + " nodes " + this.nodes + " nps "
+                + this.nodesPerSecond() + " time " + (this.elapsedNanos / 1_000_000) + " pv "
+                + this.principalVariationString();
+    }
+}
@@ -0,0 +1,214 @@
+package engine;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+import board.Move;
+
+/**
+ * Class TranspositionTable, part of package engine
+ * Fixed size hash table of search results backed by a single long array
+ * every entry is two longs, the data and the position key xor the data, so an entry
+ * torn by two threads writing at once fails the key check instead of giving wrong data
+ * entries are grouped in buckets of four (one cache line), the table can be shared
+ * by any number of search threads without locks
+ */
+public class TranspositionTable {
+
+    public static final int DEFAULT_SIZE_MB = 16;
+
+    // bound types, never 0 so a stored entry is never 0
+    public static final int UPPER_BOUND = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int EXACT = 3;
+
+    private static final int ENTRIES_PER_BUCKET = 4;
+    private static final int LONGS_PER_BUCKET = ENTRIES_PER_BUCKET * 2;
+
+    // opaque access keeps every long read and write atomic without ordering costs
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private long[] slots;
+    private long bucketMask;
+
+    // incremented for every new search so entries of old searches are replaced first
+    private volatile int generation;
+
+    /**
+     * Constructor of a table using at most the given amount of memory
+     * the number of buckets is rounded down to a power of two
+     *
+     * @param megabytes size of the table in megabytes, at least 1
+     */
+    public TranspositionTable(int megabytes) {
+
+        this.resize(megabytes);
+    }
+
+    /**
+     * Replaces the table with an empty one of the given size, must not be called during a search
+     *
+     * @param megabytes size of the table in megabytes, at least 1
+     */
+    public void resize(int megabytes) {
+
+        long bytes = (long) Math.max(1, megabytes) * 1024 * 1024;
+        long buckets = Long.highestOneBit(bytes / (LONGS_PER_BUCKET * Long.BYTES));
+
+        // a java array holds at most 2^31 - 1 elements
+        buckets = Math.min(buckets, 1L << 27);
+
+        this.slots = new long[(int) (buckets * LONGS_PER_BUCKET)];
+        this.bucketMask = buckets - 1;
+        this.generation = 0;
+    }
+
+    /**
+     * Removes every entry, must not be called during a search
+     */
+    public void clear() {
+
+        Arrays.fill(this.slots, 0L);
+        this.generation = 0;
+    }
+
+    /**
+     * Starts a new search, entries of earlier searches become preferred for replacement
+     */
+    public void newSearch() {
+
+        this.generation = (this.generation + 1) & 0xFF;
+    }
+
+    /**
+     * @param key Zobrist key of the position
+     * @return the packed data of the position, 0 if the table does not hold it
+     */
+    public long probe(long key) {
+
+        long[] table = this.slots;
+        int base = (int) (key & this.bucketMask) * LONGS_PER_BUCKET;
+
+        for (int i = base; i < base + LONGS_PER_BUCKET; i += 2) {
+
+            long data = (long) SLOTS.getOpaque(table, i + 1);
+
+            if (data != 0 && ((long) SLOTS.getOpaque(table, i) ^ data) == key)
+                return data;
+        }
+
+        return 0L;
+    }
+
+    /**
+     * Stores a search result, an entry of the same position is kept if it is deeper
+     * and from the current search, otherwise the shallowest and oldest entry is replaced
+     *
+     * @param key   Zobrist key of the position
+     * @param move  best move found, Move.NONE to keep the move of an existing entry
+     * @param score score of the position, mate scores relative to the position
+     * @param depth remaining depth of the search that produced the score
+     * @param bound EXACT, LOWER_BOUND or UPPER_BOUND
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+
+        long[] table = this.slots;
+        int base = (int) (key & this.bucketMask) * LONGS_PER_BUCKET;
+        int currentGeneration = this.generation;
+
+        int replace = base;
+        int worstValue = Integer.MAX_VALUE;
+
+        for (int i = base; i < base + LONGS_PER_BUCKET; i += 2) {
+
+            long data = (long) SLOTS.getOpaque(table, i + 1);
+
+            if (data == 0) {
+
+                if (worstValue != Integer.MIN_VALUE) {
+
+                    replace = i;
+                    worstValue = Integer.MIN_VALUE;
+                }
+
+                continue;
+            }
+
+            if (((long) SLOTS.getOpaque(table, i) ^ data) == key) {
+
+                if (move == Move.NONE)
+                    move = move(data);
+
+                // a deeper result of this search is worth more than a shallow new one
+                if (bound != EXACT && generation(data) == currentGeneration && depth(data) > depth + 2)
+                    return;
+
+                replace = i;
+                break;
+            }
+
+            int age = (currentGeneration - generation(data)) & 0xFF;
+            int value = depth(data) - (8 * age);
+
+            if (value < worstValue) {
+
+                replace = i;
+                worstValue = value;
+            }
+        }
+
+        long data = (move & 0xFFFFL) | ((score & 0xFFFFL) << 16) | ((long) Math.max(0, Math.min(depth, 255)) << 32)
+                | ((long) bound << 40) | ((long) currentGeneration << 42);
+
+        SLOTS.setOpaque(table, replace + 1, data);
+        SLOTS.setOpaque(table, replace, key ^ data);
+    }
+
+    /**
+     * Estimates how full the table is from its first thousand entries
+     *
+     * @return the used entries of the current search per thousand
+     */
+    public int hashfull() {
+
+        long[] table = this.slots;
+        int sampled = Math.min(1000, table.length / 2);
+        int used = 0;
+
+        for (int i = 0; i < sampled; i++) {
+
+            long data = (long) SLOTS.getOpaque(table, (i * 2) + 1);
+
+            if (data != 0 && generation(data) == this.generation)
+                used++;
+        }
+
+        return (used * 1000) / Math.max(1, sampled);
+    }
+
+    public static int move(long data) {
+
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int score(long data) {
+
+        return (short) (data >>> 16);
+    }
+
+    public static int depth(long data) {
+
+        return (int) ((data >>> 32) & 0xFF);
+    }
+
+    public static int bound(long data) {
+
+        return (int) ((data >>> 40) & 0x3);
+    }
+
+    private static int generation(long data) {
+
+        return (int) ((data >>> 42) & 0xFF);
+    }
+}
@@ -0,0 +1,20 @@
+package enums;
+
+public enum GameStatus {
+    IN_PROGRESS,
+    CHECKMATE,
+    STALEMATE,
+    // a hundred plies without a capture or a pawn move
+    FIFTY_MOVES,
+    // the same position for the third time
+    REPETITION,
+    INSUFFICIENT_MATERIAL;
+
+    /**
+     * @return true if the game has ended
+     */
+    public boolean isOver() {
+
+        return this != IN_PROGRESS;
+    }
+}
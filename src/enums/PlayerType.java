@@ -0,0 +1,8 @@
+package enums;
+
+public enum PlayerType {
+    // moves found by the search
+    ENGINE,
+    // a legal move picked at random
+    RANDOM
+}
@@ -0,0 +1,25 @@
+package enums;
+
+public enum RenderMode {
+    // the whole board is printed after every move
+    FULL,
+    // the board is drawn once at the top of the terminal, later only the changed squares are redrawn
+    DIFF,
+    // nothing is printed
+    OFF;
+
+    /**
+     * @param name name of a mode in any case, e.g. "diff"
+     * @return the mode of the name, FULL if there is no such mode
+     */
+    public static RenderMode fromName(String name) {
+
+        for (RenderMode mode : values()) {
+
+            if (mode.name().equalsIgnoreCase(name))
+                return mode;
+        }
+
+        return FULL;
+    }
+}
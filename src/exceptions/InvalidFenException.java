@@ -0,0 +1,9 @@
+package exceptions;
+
+public class InvalidFenException extends Exception {
+
+    public InvalidFenException(String errorMessage) {
+
+        super(errorMessage + "\n");
+    }
+}
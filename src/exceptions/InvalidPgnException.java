@@ -0,0 +1,9 @@
+package exceptions;
+
+public class InvalidPgnException extends Exception {
+
+    public InvalidPgnException(String errorMessage) {
+
+        super(errorMessage + "\n");
+    }
+}
@@ -2,24 +2,37 @@ package game;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import Pair.Pair;
+import archive.MoveArchive;
+import archive.MoveArchiveWriter;
 import board.Board;
+import board.Move;
+import board.Pieces;
+import book.OpeningBook;
+import engine.ParallelSearch;
+import engine.SearchLimits;
+import engine.SearchResult;
+import engine.TranspositionTable;
 import enums.Color;
+import enums.GameStatus;
+import enums.RenderMode;
 import exceptions.GameoverException;
+import exceptions.InvalidFenException;
 import exceptions.InvalidLocationException;
 import exceptions.InvalidMoveException;
 import exceptions.NoInputGivenException;
 import location.Location;
+import render.BoardRenderer;
+import tablebase.Material;
+import tablebase.Tablebase;
 // import piece.Bishop;
-import piece.King;
 // import piece.Knight;
 // import piece.Pawn;
 import piece.Piece;
@@ -31,32 +44,273 @@ public class Game {
 
     private Board board;
 
+    private final String promotionSymbols = "nbrq";
+
     // list to save the moves
     private List<Pair<Location, Location>> movesMade;
 
+    // position the saved moves start from, null for the standard starting position
+    private String startingFen;
+
     // file containing instruction on how to play the game
     // ConsoleChess\src\help\help.txt
-    private File helpFile = new File(System.getProperty("user.dir") + "./help/help.txt");
+    // directory holding the save files
+    private final String savesDirectory = System.getProperty("user.dir") + "/saves/";
 
-    private BufferedReader helpFileReader;
+    private File helpFile = new File(System.getProperty("user.dir") + "/help/help.txt");
 
     private BufferedReader inputStream;
 
     private Color playingColor = Color.WHITE;
 
+    // color played by the engine, null when both colors are played by humans
+    private Color engineColor;
+
+    private SearchLimits engineLimits;
+
+    private ParallelSearch engine;
+
+    // opening moves of the engine, null to always search
+    private OpeningBook openingBook;
+
+    private final Random bookRandom = new Random();
+
+    private final BoardRenderer renderer = new BoardRenderer(System.out, RenderMode.FULL);
+
     // private boolean check;
 
-    public Game(Board board) throws FileNotFoundException {
+    public Game(Board board) {
+
+        this(board, null, null, 1);
+    }
+
+    /**
+     * Constructor of a game where one color is played by the engine
+     *
+     * @param board        board of the game
+     * @param engineColor  color played by the engine, null for a game between two humans
+     * @param engineLimits budget of every engine move
+     * @param threads      number of threads the engine searches with
+     */
+    public Game(Board board, Color engineColor, SearchLimits engineLimits, int threads) {
 
         this.board = board;
 
+        this.engineColor = engineColor;
+        this.engineLimits = engineLimits;
+
+        if (engineColor != null)
+            this.engine = new ParallelSearch(threads, new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB));
+
         this.movesMade = new ArrayList<Pair<Location, Location>>();
 
-        this.helpFileReader = new BufferedReader(new FileReader(this.helpFile));
         // File file = new File("./src/help");
         // for(String fileNames : file.list()) System.out.println(fileNames);
+    }
 
-        this.inputStream = new BufferedReader(new InputStreamReader(System.in));
+    /**
+     * @param openingBook book the engine plays its opening moves from, null to always search
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * @param tablebase endgame tables the engine probes while searching, null for none
+     */
+    public void setTablebase(Tablebase tablebase) {
+
+        if (this.engine != null)
+            this.engine.setTablebase(tablebase);
+    }
+
+    /**
+     * @param mode how the board is printed after every move, OFF when the game is driven by a script
+     */
+    public void setRenderMode(RenderMode mode) {
+
+        this.renderer.setMode(mode);
+    }
+
+    /**
+     * Gives the game an engine of its own, used by programs that let the engine play both colors
+     *
+     * @param engine       search of the engine, its transposition table is kept between games
+     * @param engineLimits budget of every engine move
+     */
+    public void setEngine(ParallelSearch engine, SearchLimits engineLimits) {
+
+        this.engine = engine;
+        this.engineLimits = engineLimits;
+    }
+
+    /**
+     * Plays a move written as during an interactive game, nothing is printed
+     *
+     * @param moveString move in coordinate notation, e.g. "e2e4" or "e7e8n"
+     * @throws GameoverException if the game has already ended
+     */
+    public void submitMove(String moveString)
+            throws InvalidLocationException, InvalidMoveException, NoInputGivenException, GameoverException {
+
+        this.checkInProgress();
+        this.handleMove(moveString);
+    }
+
+    /**
+     * Plays a move of the move generator, nothing is printed
+     *
+     * @param move packed move, see class Move
+     * @throws InvalidMoveException if the move is not legal in the current position
+     * @throws GameoverException    if the game has already ended
+     */
+    public void submitMove(int move) throws InvalidMoveException, GameoverException {
+
+        this.checkInProgress();
+
+        int promotionType = Move.isPromotion(move) ? Move.promotionType(move) : Pieces.QUEEN;
+
+        if (move == Move.NONE || this.board.findLegalMove(Move.from(move), Move.to(move), promotionType) != move)
+            throw new InvalidMoveException(ErrorMessages.illegalMoveErrorMessage + Move.toString(move));
+
+        this.playMove(move);
+    }
+
+    /**
+     * Lets the engine play the side to move, from the opening book when it has the position
+     *
+     * @return the played move
+     * @throws GameoverException if the game has already ended
+     */
+    public int playEngineMove() throws GameoverException {
+
+        return this.playEngineMove(false);
+    }
+
+    /**
+     * @return the state of the game, whether it has ended and how
+     */
+    public GameStatus getStatus() {
+
+        if (this.board.hasLegalMove() == false)
+            return this.board.isInCheck() ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+
+        if (this.board.getHalfmoveClock() >= 100)
+            return GameStatus.FIFTY_MOVES;
+
+        if (this.board.getRepetitionCount() >= 2)
+            return GameStatus.REPETITION;
+
+        if (Material.isInsufficient(this.board))
+            return GameStatus.INSUFFICIENT_MATERIAL;
+
+        return GameStatus.IN_PROGRESS;
+    }
+
+    /**
+     * @param moves array receiving the legal moves of the side to move, at least Move.MAX_MOVES long
+     * @return the number of legal moves
+     */
+    public int getLegalMoves(int[] moves) {
+
+        return this.board.generateLegalMoves(moves);
+    }
+
+    /**
+     * @return the current position in FEN
+     */
+    public String getFen() {
+
+        return this.board.toFen();
+    }
+
+    public Color getPlayingColor() {
+
+        return this.playingColor;
+    }
+
+    /**
+     * @return the number of moves played, both colors counted
+     */
+    public int getPlyCount() {
+
+        return this.movesMade.size();
+    }
+
+    /**
+     * Saves the moves of the game as a binary archive, an existing file is overwritten
+     *
+     * @param saveFile file to write, named with the MoveArchive.EXTENSION
+     * @throws IOException if the file cannot be written
+     */
+    public void save(File saveFile) throws IOException {
+
+        // the board holds every move played since the starting position
+        try (MoveArchiveWriter writer = new MoveArchiveWriter(saveFile.toPath())) {
+            writer.addGame(this.startingFen, this.board);
+        }
+    }
+
+    /**
+     * Loads a save, a binary archive or a text save with one "e2, e4" move per line
+     * the moves of a text save without a starting position are played on the current position
+     *
+     * @param saveFile file to read, archives are recognised by the MoveArchive.EXTENSION
+     * @throws IOException if the file cannot be read or is empty
+     */
+    public void load(File saveFile) throws IOException, InvalidLocationException, InvalidMoveException,
+            NoInputGivenException, InvalidFenException {
+
+        if (saveFile.getName().endsWith(MoveArchive.EXTENSION)) {
+
+            this.loadArchive(saveFile);
+            return;
+        }
+
+        BufferedReader savefileReader = new BufferedReader(new FileReader(saveFile));
+        String fileLine = savefileReader.readLine();
+
+        if (fileLine == null) {
+
+            savefileReader.close();
+            throw new IOException("Empty file, please provide a file with saved moves");
+        }
+
+        // a save may start with the position its moves are played from
+        if (fileLine.indexOf('/') != -1) {
+
+            try {
+
+                this.board.loadFen(fileLine);
+            } catch (InvalidFenException invalidFenException) {
+
+                // the board keeps the position it had, the game goes on from there
+                savefileReader.close();
+                throw invalidFenException;
+            }
+
+            this.startingFen = fileLine;
+            this.movesMade.clear();
+            this.playingColor = (this.board.getSideToMove() == Pieces.WHITE) ? Color.WHITE : Color.BLACK;
+
+            fileLine = savefileReader.readLine();
+        }
+
+        try {
+
+            while (fileLine != null) {
+
+                String aString[] = fileLine.split(", ", 2);
+
+                this.handleMove(aString[0] + aString[1]);
+
+                fileLine = savefileReader.readLine();
+            }
+        } finally {
+
+            savefileReader.close();
+        }
     }
 
     public void play() throws IOException {
@@ -65,6 +319,8 @@ public class Game {
 
         boolean isRunning = true;
 
+        this.inputStream = new BufferedReader(new InputStreamReader(System.in));
+
         System.out.println("New game started, you can also load a saved game using the command :o");
 
         boolean printGameState = true;
@@ -77,13 +333,31 @@ public class Game {
 
                 if (printGameState == true) {
 
-                    System.out.println(board.toString());
+                    this.renderer.render(this.board);
+
+                    // ends the game once the side to move is mated or another draw rule applies
+                    this.checkInProgress();
+
                     System.out.println("Currently playing: " + this.playingColor);
+
+                    if (this.board.isInCheck())
+                        System.out.println(ErrorMessages.checkMessage + this.playingColor);
+
+                    if (this.playingColor == this.engineColor) {
+
+                        this.playEngineMove(true);
+                        continue;
+                    }
+
                     System.out.println("Type your next move or a command, for a list of commands type :h");
                 }
 
                 userInput = this.inputStream.readLine();
 
+                // the end of the input, e.g. of a script piped into the game
+                if (userInput == null)
+                    break;
+
                 userInput = userInput.trim();
 
                 switch (userInput) {
@@ -100,6 +374,9 @@ public class Game {
                     case ":o":
                         this.openGame();
                         break;
+                    case ":f":
+                        System.out.println(this.board.toFen());
+                        break;
                     default:
                         this.handleMove(userInput);
                         break;
@@ -116,12 +393,17 @@ public class Game {
             } catch (NoInputGivenException noInputException) {
 
                 System.out.println(noInputException.getMessage());
+            } catch (InvalidFenException invalidFenException) {
+
+                System.out.println(invalidFenException.getMessage());
             } catch (GameoverException gameOver) {
 
                 System.out.println(gameOver.getMessage());
                 isRunning = false;
             }
         }
+
+        this.renderer.close();
     }
 
     private boolean isInBoundsLetter(char c) {
@@ -142,7 +424,11 @@ public class Game {
 
     private boolean isValidInputMove(String moveString) {
 
-        if (moveString.length() != 4)
+        if (moveString.length() != 4 && moveString.length() != 5)
+            return false;
+
+        // optional piece a pawn is promoted to
+        if (moveString.length() == 5 && this.promotionSymbols.indexOf(moveString.charAt(4)) == -1)
             return false;
 
         if (this.isInBoundsLetter(moveString.charAt(0)) == false)
@@ -161,7 +447,7 @@ public class Game {
     }
 
     private void handleMove(String moveString)
-            throws InvalidLocationException, InvalidMoveException, NoInputGivenException, GameoverException {
+            throws InvalidLocationException, InvalidMoveException, NoInputGivenException {
 
         if (moveString.length() == 0) {
 
@@ -173,10 +459,13 @@ public class Game {
             throw new InvalidLocationException(moveString + ErrorMessages.invalidLocationErrorMessage);
         }
 
-        Location fLocation = new Location(moveString.substring(0, 2));
-        Location tLocation = new Location(moveString.substring(2, 4));
+        Location fLocation = Location.of(moveString, 0);
+        Location tLocation = Location.of(moveString, 2);
 
-        if (fLocation.toString().equals(tLocation.toString())) {
+        int promotionType = (moveString.length() == 5) ? Pieces.KNIGHT + this.promotionSymbols.indexOf(moveString.charAt(4))
+                : Pieces.QUEEN;
+
+        if (fLocation == tLocation) {
 
             throw new InvalidLocationException(moveString + ErrorMessages.sameLocationErrorMessage);
         }
@@ -199,14 +488,23 @@ public class Game {
             throw new InvalidMoveException(ErrorMessages.movingOpposingPlayersPieceErrorMessage);
         }
 
-        movingPiece.moveTo(tLocation);
+        int specialMove = this.board.findLegalMove(Board.squareOf(fLocation), Board.squareOf(tLocation), promotionType);
+
+        // castling, en passant and promotions are not part of the piece rules
+        if (specialMove != Move.NONE && (Move.isCastle(specialMove) || Move.isPromotion(specialMove)
+                || Move.flags(specialMove) == Move.EN_PASSANT)) {
+
+            this.board.makeMove(specialMove);
+        } else {
 
-        if (movingPiece instanceof King) {
+            movingPiece.moveTo(tLocation);
 
-            if (movingPiece.color == Color.WHITE)
-                this.board.whiteKingLocation = tLocation;
-            else
-                this.board.blackKingLocation = tLocation;
+            // the piece rules do not look at the own king, a move leaving it attacked is taken back
+            if (this.board.isKingAttacked(this.board.getSideToMove() ^ 1)) {
+
+                this.board.unmakeMove();
+                throw new InvalidMoveException(ErrorMessages.kingLeftInCheckErrorMessage);
+            }
         }
 
         movesMade.add(new Pair<Location, Location>(fLocation, tLocation));
@@ -216,8 +514,73 @@ public class Game {
         return;
     }
 
+    /**
+     * Lets the engine choose a move, from the book or by searching, and plays it
+     *
+     * @param verbose true to print the choice of the engine
+     * @return the played move
+     * @throws GameoverException if the game has already ended
+     */
+    private int playEngineMove(boolean verbose) throws GameoverException {
+
+        if (this.engine == null)
+            throw new IllegalStateException("The game has no engine");
+
+        this.checkInProgress();
+
+        // book moves are played without searching
+        int move = (this.openingBook != null) ? this.openingBook.probe(this.board, this.bookRandom) : Move.NONE;
+
+        if (move != Move.NONE) {
+
+            if (verbose)
+                System.out.println("Engine plays " + Move.toString(move) + " (book)");
+        } else {
+
+            if (verbose)
+                System.out.println("Engine is thinking...");
+
+            SearchResult result = this.engine.search(this.board, this.engineLimits);
+
+            move = result.bestMove;
+
+            if (verbose)
+                System.out.println("Engine plays " + Move.toString(move) + " (" + result + ")");
+        }
+
+        this.playMove(move);
+
+        return move;
+    }
+
+    private void checkInProgress() throws GameoverException {
+
+        GameStatus status = this.getStatus();
+
+        if (status == GameStatus.CHECKMATE)
+            throw new GameoverException(ErrorMessages.checkmateMessage + this.playingColor.nextColor());
+
+        if (status == GameStatus.STALEMATE)
+            throw new GameoverException(ErrorMessages.stalemateMessage);
+
+        if (status.isOver())
+            throw new GameoverException(ErrorMessages.gameOverErrorMessage + status);
+    }
+
+    private void playMove(int move) {
+
+        int from = Move.from(move);
+        int to = Move.to(move);
+
+        this.board.makeMove(move);
+
+        movesMade.add(new Pair<Location, Location>(Location.of(from), Location.of(to)));
+
+        this.playingColor = this.playingColor.nextColor();
+    }
+
     private void openGame() throws IOException, InvalidLocationException, InvalidMoveException, NoInputGivenException,
-            GameoverException {
+            InvalidFenException {
 
         System.out.println("New game stopped, do you want to load a saved game? (y/n)");
 
@@ -242,27 +605,14 @@ public class Game {
 
         userInput = this.inputStream.readLine();
 
-        BufferedReader savefileReader = new BufferedReader(new FileReader(System.getProperty("user.dir") + "/saves/" + userInput + ".txt"));
-        String fileLine = savefileReader.readLine();
+        File archiveFile = new File(this.savesDirectory + userInput + MoveArchive.EXTENSION);
 
-        if (fileLine == null) {
+        // binary saves are preferred, text saves of older versions can still be loaded
+        File saveFile = archiveFile.isFile() ? archiveFile : new File(this.savesDirectory + userInput + ".txt");
 
-            savefileReader.close();
-            throw new IOException("Empty file, please provide a file with saved moves");
-        }
-
-        while (fileLine != null) {
-
-            String aString[] = fileLine.split(", ", 2);
-
-            this.handleMove(aString[0] + aString[1]);
-
-            fileLine = savefileReader.readLine();
-        }
-
-        savefileReader.close();
+        this.load(saveFile);
 
-        System.out.println("Loaded file: " + userInput + ".txt");
+        System.out.println("Loaded file: " + saveFile.getName());
 
         return;
     }
@@ -293,22 +643,37 @@ public class Game {
 
         userInput = this.inputStream.readLine();
 
-        File saveFile = new File("src/saves/" + userInput + ".txt");
+        File saveFile = new File(this.savesDirectory + userInput + MoveArchive.EXTENSION);
+
+        this.save(saveFile);
+
+        System.out.println("Saved file: " + saveFile.getName());
 
-        saveFile.createNewFile();
+        return;
+    }
+
+    private void loadArchive(File archiveFile) throws IOException, InvalidFenException, InvalidMoveException {
 
-        FileWriter fileWriter = new FileWriter(saveFile);
+        try (MoveArchive archive = new MoveArchive(archiveFile.toPath())) {
 
-        for (Pair<Location, Location> locationPair : movesMade) {
+            if (archive.getGameCount() == 0)
+                throw new IOException("Empty file, please provide a file with saved moves");
 
-            String toWrite = locationPair.firstObj.toString() + ", " + locationPair.secondObj.toString() + "\n";
+            archive.replay(0, archive.getPlyCount(0), this.board);
 
-            fileWriter.write(toWrite);
+            this.startingFen = archive.getStartingFen(0);
         }
 
-        fileWriter.close();
+        this.movesMade.clear();
 
-        return;
+        for (int i = 0; i < this.board.getUndoSize(); i++) {
+
+            int move = this.board.getMove(i);
+
+            this.movesMade.add(new Pair<Location, Location>(Location.of(Move.from(move)), Location.of(Move.to(move))));
+        }
+
+        this.playingColor = (this.board.getSideToMove() == Pieces.WHITE) ? Color.WHITE : Color.BLACK;
     }
 
     private boolean exitGame() throws IOException {
@@ -337,13 +702,16 @@ public class Game {
 
         System.out.println();
 
-        String fileLine = helpFileReader.readLine();
+        try (BufferedReader helpFileReader = new BufferedReader(new FileReader(this.helpFile))) {
 
-        while (fileLine != null) {
+            String fileLine = helpFileReader.readLine();
 
-            System.out.println(fileLine);
+            while (fileLine != null) {
 
-            fileLine = helpFileReader.readLine();
+                System.out.println(fileLine);
+
+                fileLine = helpFileReader.readLine();
+            }
         }
 
         System.out.println();
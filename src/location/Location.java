@@ -6,62 +6,93 @@ package location;
  * all coded to coordinates using a row / column system
  * rows are between 1 and 8
  * columns are between a and h
+ * there is one immutable instance per square, shared by the whole program,
+ * so locations are looked up instead of created and can be compared with ==
  */
-public class Location {
+public final class Location {
 
-    private int column;
-    private int row;
-    // private String stringRepresentation;
+    private static final String COLUMN_NAMES = "abcdefgh";
 
-    private final String stringColumnRepresentation = "abcdefgh";
+    // the 64 locations, indexed by ROW * 8 + COLUMN
+    private static final Location[] SQUARES = new Location[64];
+
+    static {
+
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new Location(square);
+        }
+    }
+
+    private final int column;
+    private final int row;
+    private final int square;
+
+    // name of the square, e.g. "a1", built once so toString allocates nothing
+    private final String name;
+
+    private Location(int square) {
+
+        this.square = square;
+        this.row = square >>> 3;
+        this.column = square & 7;
+        this.name = "" + COLUMN_NAMES.charAt(this.column) + (char) ('1' + this.row);
+    }
 
     /**
-     * Constructor accepting two integers between [1, 8]
-     * actual values that are stored are between [0, 7]
-     * cannot throw exception
+     * Index based factory
+     *
+     * @param square square index ROW * 8 + COLUMN, between [0, 63]
+     * @return the location of the square
+     */
+    public static Location of(int square) {
+
+        return SQUARES[square];
+    }
+
+    /**
+     * Factory accepting two integers between [1, 8]
+     * the location stores them as values between [0, 7]
      *
      * @param r row of the chess board
      * @param c column of the chess board
+     * @return the location, null if a value is out of range
      */
-    public Location(int r, int c) {
-
-        // set the row
-        this.row = (r != 0) ? r - 1 : r;
+    public static Location of(int r, int c) {
 
-        // set the column
-        this.column = (c != 0) ? c - 1 : c;
+        if (r < 1 || r > 8 || c < 1 || c > 8)
+            return null;
 
+        return SQUARES[((r - 1) * 8) + (c - 1)];
     }
 
     /**
-     * Constructor accepting a string of starting location of the form "a1"
-     * length is always two but the input string might not be acceptible
+     * Factory accepting a location of the form "a1"
      *
      * @param loc represents a location on the chess board
+     * @return the location, null if the text is not a location
      */
-    public Location(String loc) {
+    public static Location of(CharSequence loc) {
 
-        // get the column from the location string
-        char column = loc.charAt(0);
-
-        // get the row from the location string
-        char row = loc.charAt(1);
-
-        // check if the column character is valid
-        if (this.stringColumnRepresentation.indexOf(column) != -1) {
-
-            // System.out.println("valid column");
+        return (loc.length() < 2) ? null : of(loc, 0);
+    }
 
-            this.column = this.stringColumnRepresentation.indexOf(column);
-        }
+    /**
+     * Reads a location of the form "a1" inside a longer text, e.g. the ending
+     * location of the move "e2e4" starts at offset 2, nothing is allocated
+     *
+     * @param text   text holding the location
+     * @param offset index of the column character
+     * @return the location, null if the two characters are not a location
+     */
+    public static Location of(CharSequence text, int offset) {
 
-        // check if row is valid
-        if (row >= '1' && row <= '8') {
+        int column = text.charAt(offset) - 'a';
+        int row = text.charAt(offset + 1) - '1';
 
-            // System.out.println("valid row");
+        if (column < 0 || column > 7 || row < 0 || row > 7)
+            return null;
 
-            this.row = Integer.parseInt("" + row) - 1;
-        }
+        return SQUARES[(row * 8) + column];
     }
 
     /**
@@ -86,6 +117,33 @@ public class Location {
         return this.column;
     }
 
+    /**
+     * @return the square index of the location, ROW * 8 + COLUMN
+     */
+    public int getSquare() {
+
+        return this.square;
+    }
+
+    /**
+     * Locations are equal when they stand for the same square, which for the
+     * shared instances means they are the same object
+     */
+    @Override
+    public boolean equals(Object other) {
+
+        if (this == other)
+            return true;
+
+        return (other instanceof Location) && ((Location) other).square == this.square;
+    }
+
+    @Override
+    public int hashCode() {
+
+        return this.square;
+    }
+
     /**
      * override of toString method for class Location
      *
@@ -94,6 +152,6 @@ public class Location {
     @Override
     public String toString() {
 
-        return "" + this.stringColumnRepresentation.charAt(column) + Integer.toString(this.row + 1);
+        return this.name;
     }
 }
@@ -0,0 +1,217 @@
+package perft;
+
+import java.io.PrintStream;
+
+import board.Board;
+import board.Move;
+import exceptions.InvalidFenException;
+
+/**
+ * Class Perft, part of package perft
+ * Counts the leaf nodes of the legal move tree of a position to a fixed depth
+ * used to check the move generator against published results and to measure its speed
+ * moves of the last ply are counted without being played (bulk counting)
+ * inner moves are played and taken back on a single board with makeMove and unmakeMove
+ */
+public class Perft {
+
+    private static final int MAX_DEPTH = 32;
+
+    private final Board board;
+
+    // one move buffer per ply, nothing is allocated while counting
+    private final int[][] moveLists;
+
+    /**
+     * Constructor of a perft counter starting from the given position
+     * the position is copied so the given board is never changed
+     *
+     * @param root starting position
+     */
+    public Perft(Board root) {
+
+        this.board = new Board();
+        this.moveLists = new int[MAX_DEPTH + 1][Move.MAX_MOVES];
+
+        this.board.copyFrom(root);
+    }
+
+    /**
+     * @param depth number of plies to search, between 0 and 32
+     * @return the number of leaf nodes at the given depth
+     */
+    public long count(int depth) {
+
+        if (depth < 0 || depth > MAX_DEPTH)
+            throw new IllegalArgumentException("Perft depth must be between 0 and " + MAX_DEPTH);
+
+        if (depth == 0)
+            return 1;
+
+        return this.countNodes(0, depth);
+    }
+
+    /**
+     * Prints the leaf node count below every root move, used to find
+     * the move where two generators disagree
+     *
+     * @param depth number of plies to search, between 1 and 32
+     * @param out   stream receiving one "move: nodes" line per root move
+     * @return the total number of leaf nodes
+     */
+    public long divide(int depth, PrintStream out) {
+
+        if (depth < 1 || depth > MAX_DEPTH)
+            throw new IllegalArgumentException("Perft divide depth must be between 1 and " + MAX_DEPTH);
+
+        int[] moves = this.moveLists[0];
+        int count = this.board.generateLegalMoves(moves);
+
+        long total = 0;
+        StringBuilder line = new StringBuilder();
+
+        for (int i = 0; i < count; i++) {
+
+            long nodes = 1;
+
+            if (depth > 1) {
+
+                this.board.makeMove(moves[i]);
+                nodes = this.countNodes(1, depth - 1);
+                this.board.unmakeMove();
+            }
+
+            total += nodes;
+
+            line.setLength(0);
+            Move.appendTo(moves[i], line).append(": ").append(nodes);
+            out.println(line);
+        }
+
+        out.println();
+        out.println("Moves: " + count);
+        out.println("Nodes: " + total);
+
+        return total;
+    }
+
+    private long countNodes(int ply, int depth) {
+
+        int[] moves = this.moveLists[ply];
+        int count = this.board.generateLegalMoves(moves);
+
+        // bulk counting, the moves of the last ply are not played
+        if (depth == 1)
+            return count;
+
+        long nodes = 0;
+
+        for (int i = 0; i < count; i++) {
+
+            this.board.makeMove(moves[i]);
+            nodes += this.countNodes(ply + 1, depth - 1);
+            this.board.unmakeMove();
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Formats the speed of a perft run
+     *
+     * @param nodes       number of counted leaf nodes
+     * @param elapsedNano duration of the run in nanoseconds
+     * @return the time taken and the nodes per second
+     */
+    public static String formatSpeed(long nodes, long elapsedNano) {
+
+        long millis = Math.max(1, elapsedNano / 1_000_000);
+        long nodesPerSecond = (nodes * 1_000_000_000L) / Math.max(1, elapsedNano);
+
+        return millis + " ms, " + nodesPerSecond + " nps";
+    }
+
+    private static void printUsage() {
+
+        System.out.println("Usage:");
+        System.out.println("  java perft.Perft <depth> [fen]         count leaf nodes of a position");
+        System.out.println("  java perft.Perft divide <depth> [fen]  count leaf nodes below every root move");
+        System.out.println("  java perft.Perft suite [max depth]     check the standard perft positions");
+        System.out.println("The starting position is used when no FEN is given");
+    }
+
+    /**
+     * Command line entry point, the exit status is 1 when a suite result differs
+     * from the published one so the command can gate a build
+     */
+    public static void main(String[] args) {
+
+        if (args.length == 0) {
+
+            printUsage();
+            return;
+        }
+
+        try {
+
+            if (args[0].equals("suite")) {
+
+                int maxDepth = (args.length > 1) ? Integer.parseInt(args[1]) : PerftSuite.DEFAULT_MAX_DEPTH;
+
+                if (PerftSuite.run(maxDepth, System.out) == false)
+                    System.exit(1);
+
+                return;
+            }
+
+            boolean divide = args[0].equals("divide");
+            int depthIndex = divide ? 1 : 0;
+
+            if (args.length <= depthIndex) {
+
+                printUsage();
+                return;
+            }
+
+            int depth = Integer.parseInt(args[depthIndex]);
+            Board board = (args.length > depthIndex + 1) ? new Board(joinFen(args, depthIndex + 1)) : new Board();
+
+            Perft perft = new Perft(board);
+
+            long start = System.nanoTime();
+            long nodes = divide ? perft.divide(depth, System.out) : perft.count(depth);
+            long elapsed = System.nanoTime() - start;
+
+            if (divide == false)
+                System.out.println("Nodes: " + nodes);
+
+            System.out.println("Time: " + formatSpeed(nodes, elapsed));
+        } catch (NumberFormatException numberException) {
+
+            System.out.println("Not a valid number: " + numberException.getMessage());
+            printUsage();
+        } catch (IllegalArgumentException argumentException) {
+
+            System.out.println(argumentException.getMessage());
+        } catch (InvalidFenException fenException) {
+
+            System.out.println(fenException.getMessage());
+        }
+    }
+
+    // the FEN fields may arrive as separate command line arguments
+    private static String joinFen(String[] args, int start) {
+
+        StringBuilder fen = new StringBuilder();
+
+        for (int i = start; i < args.length; i++) {
+
+            if (i > start)
+                fen.append(' ');
+
+            fen.append(args[i]);
+        }
+
+        return fen.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package perft;
+
+import java.io.PrintStream;
+
+import board.Board;
+import exceptions.InvalidFenException;
+
+/**
+ * Class PerftSuite, part of package perft
+ * The standard perft positions with their published leaf node counts
+ * they cover castling, en passant, promotions, pins and discovered checks
+ */
+public final class PerftSuite {
+
+    public static final int DEFAULT_MAX_DEPTH = 5;
+
+    private static final String[] positions = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"
+    };
+
+    // published leaf node counts, index 0 holds depth 1
+    private static final long[][] expectedNodes = {
+            { 20L, 400L, 8902L, 197281L, 4865609L, 119060324L },
+            { 48L, 2039L, 97862L, 4085603L, 193690690L },
+            { 14L, 191L, 2812L, 43238L, 674624L, 11030083L, 178633661L },
+            { 6L, 264L, 9467L, 422333L, 15833292L },
+            { 44L, 1486L, 62379L, 2103487L, 89941194L },
+            { 46L, 2079L, 89890L, 3894594L, 164075551L }
+    };
+
+    private PerftSuite() {
+    }
+
+    /**
+     * Runs every position of the suite up to the given depth and prints
+     * the result, the time and the nodes per second of every run
+     *
+     * @param maxDepth deepest depth to check, positions with fewer published depths stop earlier
+     * @param out      stream receiving the report
+     * @return true if every count matches the published one
+     */
+    public static boolean run(int maxDepth, PrintStream out) {
+
+        boolean passed = true;
+        long totalNodes = 0;
+        long totalTime = 0;
+
+        for (int i = 0; i < positions.length; i++) {
+
+            Perft perft;
+
+            try {
+
+                perft = new Perft(new Board(positions[i]));
+            } catch (InvalidFenException fenException) {
+
+                out.println(fenException.getMessage());
+                passed = false;
+                continue;
+            }
+
+            out.println("Position " + (i + 1) + ": " + positions[i]);
+
+            int depthLimit = Math.min(maxDepth, expectedNodes[i].length);
+
+            for (int depth = 1; depth <= depthLimit; depth++) {
+
+                long start = System.nanoTime();
+                long nodes = perft.count(depth);
+                long elapsed = System.nanoTime() - start;
+
+                long expected = expectedNodes[i][depth - 1];
+                boolean matches = (nodes == expected);
+
+                totalNodes += nodes;
+                totalTime += elapsed;
+
+                out.println("  depth " + depth + ": " + nodes + ((matches == true) ? " ok" : " FAILED, expected " + expected)
+                        + " (" + Perft.formatSpeed(nodes, elapsed) + ")");
+
+                if (matches == false)
+                    passed = false;
+            }
+        }
+
+        out.println("Total: " + totalNodes + " nodes, " + Perft.formatSpeed(totalNodes, totalTime));
+        out.println((passed == true) ? "Perft suite passed" : "Perft suite FAILED");
+
+        return passed;
+    }
+}
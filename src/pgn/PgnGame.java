@@ -0,0 +1,82 @@
+package pgn;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Class PgnGame, part of package pgn
+ * One game as read from a PGN file, the tag pairs and the undecoded movetext
+ * the moves are decoded later by the thread replaying the game
+ */
+public class PgnGame {
+
+    // position of the game in its file, starting at 1
+    private final long number;
+
+    private final Map<String, String> tags = new LinkedHashMap<String, String>();
+
+    private String movetext = "";
+
+    // first tag line that could not be read, null when every tag was valid
+    private String invalidTag;
+
+    public PgnGame(long number) {
+
+        this.number = number;
+    }
+
+    public long getNumber() {
+
+        return this.number;
+    }
+
+    /**
+     * @param name tag name, e.g. "White" or "FEN"
+     * @return the value of the tag, null if the game does not have it
+     */
+    public String getTag(String name) {
+
+        return this.tags.get(name);
+    }
+
+    public Map<String, String> getTags() {
+
+        return this.tags;
+    }
+
+    /**
+     * @return the movetext with comments, variations and move numbers still in place
+     */
+    public String getMovetext() {
+
+        return this.movetext;
+    }
+
+    public String getInvalidTag() {
+
+        return this.invalidTag;
+    }
+
+    void putTag(String name, String value) {
+
+        this.tags.put(name, value);
+    }
+
+    void setMovetext(String movetext) {
+
+        this.movetext = movetext;
+    }
+
+    void setInvalidTag(String line) {
+
+        if (this.invalidTag == null)
+            this.invalidTag = line;
+    }
+
+    @Override
+    public String toString() {
+
+        return "game " + this.number + " (" + this.tags.getOrDefault("White", "?") + " - "
+                + this.tags.getOrDefault("Black", "?") + ")";
+    }
+}
@@ -0,0 +1,428 @@
+package pgn;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import board.Board;
+import board.Move;
+import errorMessages.ErrorMessages;
+import exceptions.InvalidFenException;
+import exceptions.InvalidPgnException;
+
+/**
+ * Class PgnImporter, part of package pgn
+ * Replays every game of a PGN file on a Board
+ * one thread reads the file and hands games through a bounded queue to the replaying
+ * threads, so memory stays constant whatever the size of the file and a slow consumer
+ * slows the reader down instead of filling the heap
+ * games with an illegal move or a broken tag are reported and skipped, the import goes on
+ */
+public class PgnImporter {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    // games between two progress lines
+    private static final long PROGRESS_INTERVAL = 100_000;
+
+    // handed to every replaying thread once the file has no more games
+    private static final PgnGame END_OF_FILE = new PgnGame(0);
+
+    private final int threads;
+    private final int queueCapacity;
+
+    private PrintStream progress;
+
+    /**
+     * Constructor of an importer
+     *
+     * @param threads       number of threads replaying games, at least 1
+     * @param queueCapacity games read ahead of the replaying threads
+     */
+    public PgnImporter(int threads, int queueCapacity) {
+
+        this.threads = Math.max(1, threads);
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    /**
+     * @param progress stream receiving a games per second line every 100000 games, null for none
+     */
+    public void setProgress(PrintStream progress) {
+
+        this.progress = progress;
+    }
+
+    /**
+     * Imports every game of a file, returns when all of them are replayed
+     *
+     * @param path     PGN file
+     * @param listener receives the imported and the rejected games
+     * @return the counts and the speed of the import
+     * @throws IOException if the file cannot be read
+     */
+    public Result importFile(Path path, PgnListener listener) throws IOException {
+
+        BlockingQueue<PgnGame> queue = new ArrayBlockingQueue<PgnGame>(this.queueCapacity);
+
+        AtomicLong imported = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong moves = new AtomicLong();
+        AtomicLong processed = new AtomicLong();
+
+        long start = System.nanoTime();
+
+        Thread[] workers = new Thread[this.threads];
+
+        for (int i = 0; i < workers.length; i++) {
+
+            Replayer replayer = new Replayer(queue, listener, imported, rejected, moves, processed, start);
+
+            workers[i] = new Thread(replayer, "pgn-replay-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+
+        long bytes = 0;
+
+        try (PgnReader reader = new PgnReader(path)) {
+
+            for (PgnGame game = reader.next(); game != null; game = reader.next()) {
+                queue.put(game);
+            }
+
+            bytes = reader.getBytesRead();
+        } catch (InterruptedException interrupted) {
+
+            Thread.currentThread().interrupt();
+        } finally {
+
+            // the workers stop on the end marker, whether the file was read to the end or not
+            for (int i = 0; i < workers.length; i++) {
+                putUninterruptibly(queue, END_OF_FILE);
+            }
+
+            for (Thread worker : workers) {
+                joinUninterruptibly(worker);
+            }
+        }
+
+        return new Result(imported.get(), rejected.get(), moves.get(), bytes, System.nanoTime() - start);
+    }
+
+    private static void putUninterruptibly(BlockingQueue<PgnGame> queue, PgnGame game) {
+
+        boolean interrupted = false;
+
+        while (true) {
+
+            try {
+
+                queue.put(game);
+                break;
+            } catch (InterruptedException interruptedException) {
+
+                interrupted = true;
+            }
+        }
+
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+
+        boolean interrupted = false;
+
+        while (thread.isAlive()) {
+
+            try {
+
+                thread.join();
+            } catch (InterruptedException interruptedException) {
+
+                interrupted = true;
+            }
+        }
+
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Replays games taken from the queue on its own board until the end marker
+     */
+    private class Replayer implements Runnable {
+
+        private final BlockingQueue<PgnGame> queue;
+        private final PgnListener listener;
+
+        private final AtomicLong imported;
+        private final AtomicLong rejected;
+        private final AtomicLong moves;
+        private final AtomicLong processed;
+
+        private final long start;
+
+        private final Board board = new Board();
+        private final Board startingPosition = new Board();
+
+        private final int[] legalMoves = new int[Move.MAX_MOVES];
+
+        private int[] gameMoves = new int[512];
+
+        Replayer(BlockingQueue<PgnGame> queue, PgnListener listener, AtomicLong imported, AtomicLong rejected,
+                AtomicLong moves, AtomicLong processed, long start) {
+
+            this.queue = queue;
+            this.listener = listener;
+            this.imported = imported;
+            this.rejected = rejected;
+            this.moves = moves;
+            this.processed = processed;
+            this.start = start;
+        }
+
+        @Override
+        public void run() {
+
+            while (true) {
+
+                PgnGame game;
+
+                try {
+
+                    game = this.queue.take();
+                } catch (InterruptedException interrupted) {
+
+                    return;
+                }
+
+                if (game == END_OF_FILE)
+                    return;
+
+                try {
+
+                    int count = this.replay(game);
+
+                    this.listener.gameImported(game, this.gameMoves, count, this.board);
+                    this.moves.addAndGet(count);
+
+                    this.countGame(this.imported);
+                } catch (InvalidPgnException | InvalidFenException invalidGame) {
+
+                    this.reject(game, invalidGame.getMessage().trim());
+                } catch (RuntimeException unexpected) {
+
+                    // a failing game or listener must not end the thread, the reader would wait on the full queue forever
+                    this.reject(game, unexpected.toString());
+                }
+            }
+        }
+
+        private void reject(PgnGame game, String reason) {
+
+            try {
+
+                this.listener.gameRejected(game, reason);
+            } catch (RuntimeException listenerFailure) {
+
+                // the game is counted as rejected anyway
+            }
+
+            this.countGame(this.rejected);
+        }
+
+        private void countGame(AtomicLong counter) {
+
+            counter.incrementAndGet();
+
+            long games = this.processed.incrementAndGet();
+
+            if (PgnImporter.this.progress != null && games % PROGRESS_INTERVAL == 0) {
+
+                PgnImporter.this.progress.println(games + " games, " + Result.perSecond(games, System.nanoTime() - this.start)
+                        + " games/s");
+            }
+        }
+
+        // plays the moves of the movetext, comments, variations, numbers and annotations are skipped
+        private int replay(PgnGame game) throws InvalidPgnException, InvalidFenException {
+
+            if (game.getInvalidTag() != null)
+                throw new InvalidPgnException(ErrorMessages.invalidPgnTagErrorMessage + game.getInvalidTag());
+
+            String fen = game.getTag("FEN");
+
+            if (fen != null)
+                this.board.loadFen(fen);
+            else
+                this.board.copyFrom(this.startingPosition);
+
+            String text = game.getMovetext();
+            int length = text.length();
+            int index = 0;
+            int count = 0;
+            int variationDepth = 0;
+
+            while (index < length) {
+
+                char c = text.charAt(index);
+
+                if (c <= ' ' || c == '.') {
+
+                    index++;
+                } else if (c == '{') {
+
+                    int close = text.indexOf('}', index);
+                    index = (close == -1) ? length : close + 1;
+                } else if (c == ';') {
+
+                    int lineEnd = text.indexOf('\n', index);
+                    index = (lineEnd == -1) ? length : lineEnd + 1;
+                } else if (c == '(') {
+
+                    variationDepth++;
+                    index++;
+                } else if (c == ')') {
+
+                    variationDepth = Math.max(0, variationDepth - 1);
+                    index++;
+                } else if (c == '!' || c == '?') {
+
+                    // annotations written apart from their move, e.g. "e4 !?"
+                    index++;
+                } else if (text.startsWith("e.p.", index)) {
+
+                    // the en passant mark after a capture, no move starts with "e."
+                    index += 4;
+                } else {
+
+                    int end = index;
+
+                    while (end < length && isTokenEnd(text.charAt(end)) == false) {
+                        end++;
+                    }
+
+                    if (variationDepth == 0 && isMoveToken(text, index, end)) {
+
+                        int move = San.parse(this.board, text, index, end, this.legalMoves);
+
+                        if (move == Move.NONE)
+                            throw new InvalidPgnException(ErrorMessages.invalidPgnMoveErrorMessage
+                                    + text.substring(index, end) + " (" + game + ")");
+
+                        if (count == this.gameMoves.length)
+                            this.gameMoves = Arrays.copyOf(this.gameMoves, count * 2);
+
+                        this.gameMoves[count++] = move;
+                        this.board.makeMove(move);
+                    }
+
+                    index = end;
+                }
+            }
+
+            return count;
+        }
+
+        private boolean isTokenEnd(char c) {
+
+            return c <= ' ' || c == '.' || c == '{' || c == '(' || c == ')' || c == ';';
+        }
+
+        // move numbers, results and numeric annotation glyphs are not moves
+        private boolean isMoveToken(String text, int start, int end) {
+
+            char first = text.charAt(start);
+
+            if (first == '$' || first == '*')
+                return false;
+
+            if (first >= '1' && first <= '9')
+                return false;
+
+            // 0-1 is a result, 0-0 is castling
+            if (first == '0' && end - start > 2 && text.charAt(start + 2) == '1')
+                return false;
+
+            return true;
+        }
+    }
+
+    /**
+     * Class Result, counts and speed of one import
+     */
+    public static class Result {
+
+        public final long imported;
+        public final long rejected;
+        public final long moves;
+        public final long bytes;
+        public final long elapsedNanos;
+
+        Result(long imported, long rejected, long moves, long bytes, long elapsedNanos) {
+
+            this.imported = imported;
+            this.rejected = rejected;
+            this.moves = moves;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long gamesPerSecond() {
+
+            return perSecond(this.imported + this.rejected, this.elapsedNanos);
+        }
+
+        static long perSecond(long count, long nanos) {
+
+            return (count * 1_000_000_000L) / Math.max(1, nanos);
+        }
+
+        @Override
+        public String toString() {
+
+            return "games " + this.imported + " imported, " + this.rejected + " rejected, moves " + this.moves
+                    + ", " + (this.bytes / (1024 * 1024)) + " MB, time " + (this.elapsedNanos / 1_000_000) + " ms, "
+                    + this.gamesPerSecond() + " games/s, " + perSecond(this.moves, this.elapsedNanos) + " moves/s";
+        }
+    }
+
+    /**
+     * Command line entry point, java pgn.PgnImporter file.pgn [threads]
+     */
+    public static void main(String[] args) throws IOException {
+
+        if (args.length == 0) {
+
+            System.out.println("Usage: java pgn.PgnImporter <file.pgn> [threads]");
+            return;
+        }
+
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        PgnImporter importer = new PgnImporter(threads, DEFAULT_QUEUE_CAPACITY);
+        importer.setProgress(System.out);
+
+        Result result = importer.importFile(Paths.get(args[0]), new PgnListener() {
+
+            @Override
+            public void gameImported(PgnGame game, int[] moves, int moveCount, Board position) {
+            }
+
+            @Override
+            public void gameRejected(PgnGame game, String reason) {
+
+                System.out.println("Skipped " + game + ": " + reason);
+            }
+        });
+
+        System.out.println(result);
+    }
+}
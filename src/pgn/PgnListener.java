@@ -0,0 +1,30 @@
+package pgn;
+
+import board.Board;
+
+/**
+ * Interface PgnListener, part of package pgn
+ * Receives the games of an import, the methods are called from the importing threads
+ * at the same time, so an implementation must be thread safe
+ */
+public interface PgnListener {
+
+    /**
+     * Called for every game whose moves were all legal
+     *
+     * @param game      tags and movetext of the game
+     * @param moves     packed moves of the game, only the first moveCount are valid, the buffer is reused
+     * @param moveCount number of moves of the game
+     * @param position  position after the last move, reused for the next game
+     */
+    void gameImported(PgnGame game, int[] moves, int moveCount, Board position);
+
+    /**
+     * Called for every game that was skipped
+     *
+     * @param game   tags and movetext of the game
+     * @param reason why the game could not be replayed
+     */
+    default void gameRejected(PgnGame game, String reason) {
+    }
+}
@@ -0,0 +1,226 @@
+package pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Class PgnReader, part of package pgn
+ * Splits a PGN file into games without loading it into memory
+ * the file is streamed through one reused direct buffer of a file channel, so any size
+ * of file is read with constant memory, bytes are taken as ISO-8859-1 characters
+ * the reader only separates tags from movetext, the moves are decoded by class San
+ */
+public class PgnReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    // reused for every line and every movetext, only the finished strings are allocated
+    private final StringBuilder line = new StringBuilder(256);
+    private final StringBuilder movetext = new StringBuilder(4096);
+
+    private long bytesRead;
+    private long gamesRead;
+
+    private boolean endOfFile;
+
+    // a tag line already read that belongs to the next game
+    private boolean pendingTagLine;
+
+    public PgnReader(Path path) throws IOException {
+
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        // start with an empty buffer, the first read fills it
+        this.buffer.flip();
+    }
+
+    /**
+     * @return the next game of the file, null when the file has no more games
+     * @throws IOException if the file cannot be read
+     */
+    public PgnGame next() throws IOException {
+
+        PgnGame game = null;
+
+        this.movetext.setLength(0);
+
+        while (this.pendingTagLine || this.readLine()) {
+
+            boolean tagLine = this.line.length() > 0 && this.line.charAt(0) == '[';
+
+            // a tag after movetext starts the next game
+            if (tagLine && this.movetext.length() > 0) {
+
+                this.pendingTagLine = true;
+                break;
+            }
+
+            this.pendingTagLine = false;
+
+            if (this.line.length() == 0 || this.line.charAt(0) == '%')
+                continue;
+
+            if (game == null)
+                game = new PgnGame(++this.gamesRead);
+
+            if (tagLine)
+                readTag(this.line, game);
+            else
+                this.movetext.append(this.line).append('\n');
+        }
+
+        if (game != null)
+            game.setMovetext(this.movetext.toString());
+
+        return game;
+    }
+
+    /**
+     * @return the number of bytes read from the file so far
+     */
+    public long getBytesRead() {
+
+        return this.bytesRead;
+    }
+
+    /**
+     * @return the size of the file in bytes
+     * @throws IOException if the size cannot be read
+     */
+    public long size() throws IOException {
+
+        return this.channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        this.channel.close();
+    }
+
+    // reads the next line into the line builder without its line ending, false at the end of the file
+    private boolean readLine() throws IOException {
+
+        this.line.setLength(0);
+
+        boolean readAny = false;
+
+        while (true) {
+
+            if (this.buffer.hasRemaining() == false && this.fill() == false) {
+
+                trimEnd(this.line);
+                return readAny;
+            }
+
+            readAny = true;
+
+            char c = (char) (this.buffer.get() & 0xFF);
+
+            if (c == '\n') {
+
+                trimEnd(this.line);
+                return true;
+            }
+
+            this.line.append(c);
+        }
+    }
+
+    private boolean fill() throws IOException {
+
+        if (this.endOfFile)
+            return false;
+
+        this.buffer.clear();
+
+        int read = this.channel.read(this.buffer);
+
+        this.buffer.flip();
+
+        if (read <= 0) {
+
+            this.endOfFile = true;
+            return false;
+        }
+
+        this.bytesRead += read;
+
+        return true;
+    }
+
+    // removes trailing spaces and the carriage return of windows line endings
+    private static void trimEnd(StringBuilder text) {
+
+        int length = text.length();
+
+        while (length > 0 && text.charAt(length - 1) <= ' ') {
+            length--;
+        }
+
+        text.setLength(length);
+    }
+
+    // [Name "Value"], a backslash escapes a quote or a backslash inside the value
+    private static void readTag(StringBuilder line, PgnGame game) {
+
+        int length = line.length();
+        int index = 1;
+
+        while (index < length && line.charAt(index) == ' ') {
+            index++;
+        }
+
+        int nameStart = index;
+
+        while (index < length && line.charAt(index) != ' ' && line.charAt(index) != '"') {
+            index++;
+        }
+
+        int nameEnd = index;
+
+        while (index < length && line.charAt(index) == ' ') {
+            index++;
+        }
+
+        if (nameEnd == nameStart || index >= length || line.charAt(index) != '"') {
+
+            game.setInvalidTag(line.toString());
+            return;
+        }
+
+        StringBuilder value = new StringBuilder();
+
+        for (index++; index < length; index++) {
+
+            char c = line.charAt(index);
+
+            if (c == '\\' && index + 1 < length) {
+
+                value.append(line.charAt(++index));
+            } else if (c == '"') {
+
+                break;
+            } else {
+
+                value.append(c);
+            }
+        }
+
+        if (index >= length) {
+
+            game.setInvalidTag(line.toString());
+            return;
+        }
+
+        game.putTag(line.substring(nameStart, nameEnd), value.toString());
+    }
+}
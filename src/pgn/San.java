@@ -0,0 +1,220 @@
+package pgn;
+
+import board.Board;
+import board.Move;
+import board.Pieces;
+
+/**
+ * Class San, part of package pgn
+ * Decodes moves in standard algebraic notation (e.g. "Nbd7", "exd6", "e8=Q+", "O-O")
+ * against the legal moves of a position, check and annotation marks are ignored
+ */
+public final class San {
+
+    private static final String PIECE_LETTERS = "PNBRQK";
+
+    private San() {
+    }
+
+    /**
+     * Finds the legal move written in a part of a text, nothing is allocated
+     *
+     * @param board position the move is played in
+     * @param text  text holding the move
+     * @param start index of the first character of the move
+     * @param end   index after the last character of the move
+     * @param moves buffer for the legal moves, at least Move.MAX_MOVES long
+     * @return the packed move, Move.NONE if no legal move or more than one matches
+     */
+    public static int parse(Board board, CharSequence text, int start, int end, int[] moves) {
+
+        // check, mate and annotation marks
+        while (end > start && "+#!?".indexOf(text.charAt(end - 1)) != -1) {
+            end--;
+        }
+
+        if (end - start < 2)
+            return Move.NONE;
+
+        // only the moves matching the text are tested for legality
+        int count = board.generatePseudoLegalMoves(moves);
+
+        char first = text.charAt(start);
+
+        // castling, written with letter O or with zeros
+        if (first == 'O' || first == '0') {
+
+            int length = end - start;
+            int flag;
+
+            if (length == 3)
+                flag = Move.KING_CASTLE;
+            else if (length == 5)
+                flag = Move.QUEEN_CASTLE;
+            else
+                return Move.NONE;
+
+            for (int i = 0; i < count; i++) {
+
+                if (Move.flags(moves[i]) == flag && board.isLegal(moves[i]))
+                    return moves[i];
+            }
+
+            return Move.NONE;
+        }
+
+        int type = Pieces.PAWN;
+
+        if (first >= 'A' && first <= 'Z') {
+
+            type = PIECE_LETTERS.indexOf(first);
+
+            if (type == -1)
+                return Move.NONE;
+
+            start++;
+        }
+
+        int promotionType = Pieces.EMPTY;
+        char last = text.charAt(end - 1);
+
+        if (type == Pieces.PAWN && last >= 'A' && last <= 'Z') {
+
+            promotionType = PIECE_LETTERS.indexOf(last);
+
+            if (promotionType < Pieces.KNIGHT || promotionType > Pieces.QUEEN)
+                return Move.NONE;
+
+            end--;
+
+            if (end > start && text.charAt(end - 1) == '=')
+                end--;
+        }
+
+        if (end - start < 2)
+            return Move.NONE;
+
+        int toColumn = text.charAt(end - 2) - 'a';
+        int toRow = text.charAt(end - 1) - '1';
+
+        if (toColumn < 0 || toColumn > 7 || toRow < 0 || toRow > 7)
+            return Move.NONE;
+
+        int to = (toRow * 8) + toColumn;
+
+        // optional starting column and row, the capture mark is not needed to find the move
+        int fromColumn = -1;
+        int fromRow = -1;
+
+        for (int i = start; i < end - 2; i++) {
+
+            char c = text.charAt(i);
+
+            if (c >= 'a' && c <= 'h')
+                fromColumn = c - 'a';
+            else if (c >= '1' && c <= '8')
+                fromRow = c - '1';
+            else if (c != 'x' && c != ':' && c != '-')
+                return Move.NONE;
+        }
+
+        int found = Move.NONE;
+
+        for (int i = 0; i < count; i++) {
+
+            int move = moves[i];
+            int from = Move.from(move);
+
+            if (Move.to(move) != to || Pieces.typeOf(board.getPieceCode(from)) != type)
+                continue;
+
+            if ((fromColumn != -1 && (from & 7) != fromColumn) || (fromRow != -1 && (from >>> 3) != fromRow))
+                continue;
+
+            if (Move.isPromotion(move) ? Move.promotionType(move) != promotionType : promotionType != Pieces.EMPTY)
+                continue;
+
+            if (board.isLegal(move) == false)
+                continue;
+
+            // an ambiguous move is not a valid one
+            if (found != Move.NONE)
+                return Move.NONE;
+
+            found = move;
+        }
+
+        return found;
+    }
+
+    /**
+     * Writes a legal move of a position in standard algebraic notation, without check marks
+     *
+     * @param board position the move is played in, the move is not played
+     * @param move  packed legal move
+     * @param moves buffer for the legal moves, at least Move.MAX_MOVES long
+     * @param san   builder the move is appended to
+     * @return the given builder
+     */
+    public static StringBuilder appendTo(Board board, int move, int[] moves, StringBuilder san) {
+
+        int flags = Move.flags(move);
+
+        if (flags == Move.KING_CASTLE)
+            return san.append("O-O");
+
+        if (flags == Move.QUEEN_CASTLE)
+            return san.append("O-O-O");
+
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int type = Pieces.typeOf(board.getPieceCode(from));
+
+        if (type == Pieces.PAWN) {
+
+            if (Move.isCapture(move))
+                san.append((char) ('a' + (from & 7))).append('x');
+        } else {
+
+            san.append(PIECE_LETTERS.charAt(type));
+
+            // tell apart pieces of the same type reaching the same square
+            int count = board.generateLegalMoves(moves);
+            boolean ambiguous = false;
+            boolean sameColumn = false;
+            boolean sameRow = false;
+
+            for (int i = 0; i < count; i++) {
+
+                int other = Move.from(moves[i]);
+
+                if (other == from || Move.to(moves[i]) != to || Pieces.typeOf(board.getPieceCode(other)) != type)
+                    continue;
+
+                ambiguous = true;
+                sameColumn |= (other & 7) == (from & 7);
+                sameRow |= (other >>> 3) == (from >>> 3);
+            }
+
+            if (ambiguous) {
+
+                if (sameColumn == false)
+                    san.append((char) ('a' + (from & 7)));
+                else if (sameRow == false)
+                    san.append((char) ('1' + (from >>> 3)));
+                else
+                    san.append((char) ('a' + (from & 7))).append((char) ('1' + (from >>> 3)));
+            }
+
+            if (Move.isCapture(move))
+                san.append('x');
+        }
+
+        san.append((char) ('a' + (to & 7))).append((char) ('1' + (to >>> 3)));
+
+        if (Move.isPromotion(move))
+            san.append('=').append(PIECE_LETTERS.charAt(Move.promotionType(move)));
+
+        return san;
+    }
+}
@@ -1,18 +1,16 @@
 package piece;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import Pair.Pair;
 import board.Board;
+import board.Magics;
+import board.Pieces;
 import enums.Color;
 import exceptions.InvalidMoveException;
 import location.Location;
 
 public class Bishop extends Piece {
 
-    private final String cannotGoOverPieces = "Bishop cannot go over other pieces";
-    private List<Pair<Integer, Integer>> possibleMoves;
+    private static final String cannotGoOverPieces = "Bishop cannot go over other pieces";
+    private static final String onlyDiagonals = "Bishop can only move along its diagonals";
 
     /**
      * Constructor of the Bishop class, child of abstract class Piece
@@ -25,17 +23,6 @@ public class Bishop extends Piece {
     public Bishop(Color color, Location location, Board board) {
 
         super(color, location, board);
-
-        this.possibleMoves = new ArrayList<>();
-
-        for(int i = 1; i <= 8; i++) {
-
-            possibleMoves.add(new Pair<Integer, Integer>(i, i));
-            possibleMoves.add(new Pair<Integer, Integer>(i, -i));
-            possibleMoves.add(new Pair<Integer, Integer>(-i, i));
-            possibleMoves.add(new Pair<Integer, Integer>(-i, -i));
-
-        }
     }
 
     /**
@@ -45,17 +32,15 @@ public class Bishop extends Piece {
      */
     public void moveTo(Location newLoc) throws InvalidMoveException {
 
-        int currentColumn = this.location.getCol();
-
-        if (newLoc.getCol() > currentColumn) {
+        int from = Board.squareOf(this.location);
+        long target = 1L << Board.squareOf(newLoc);
 
-            if (this.board.freeDiagonalPath(this.location, newLoc) == false)
-                throw new InvalidMoveException(this.cannotGoOverPieces);
-        } else {
+        // attacks on an empty board are the diagonals the bishop can slide on
+        if ((Magics.bishopAttacks(from, 0L) & target) == 0)
+            throw new InvalidMoveException(onlyDiagonals);
 
-            if (this.board.freeAntidiagonalPath(this.location, newLoc) == false)
-                throw new InvalidMoveException(this.cannotGoOverPieces);
-        }
+        if ((Magics.bishopAttacks(from, this.board.getOccupancy()) & target) == 0)
+            throw new InvalidMoveException(cannotGoOverPieces);
 
         if (this.board.getPieceAt(newLoc) != null) {
 
@@ -69,24 +54,26 @@ public class Bishop extends Piece {
         return;
     }
 
-    public List<Location> generatePath() {
-
-        List<Location> path = new ArrayList<>();
-
-        int currentRow = this.location.getRow() + 1;
-        int currentColumn = this.location.getCol() + 1;
-
-        for (Pair<Integer, Integer> possibleLoc : this.possibleMoves) {
+    /**
+     * Squares the bishop could reach on an empty board, read from a table shared by every bishop
+     *
+     * @return bitboard of the reachable squares
+     */
+    @Override
+    public long generateTargets() {
 
-            int newRow = currentRow + possibleLoc.firstObj;
-            int newCol = currentColumn + possibleLoc.secondObj;
+        return Magics.bishopAttacks(this.location.getSquare(), 0L);
+    }
 
-            if ((newRow >= 1 && newRow <= 8) && ((newCol >= 1 && newCol <= 8))) {
-                path.add(new Location(newRow, newCol));
-            }
-        }
+    /**
+     * Returns the type code of the bishop
+     *
+     * @return Pieces.BISHOP
+     */
+    @Override
+    public int getType() {
 
-        return path;
+        return Pieces.BISHOP;
     }
 
     /**
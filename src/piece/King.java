@@ -1,18 +1,15 @@
 package piece;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import Pair.Pair;
+import board.Bitboards;
 import board.Board;
+import board.Pieces;
 import enums.Color;
 import exceptions.InvalidMoveException;
 import location.Location;
 
 public class King extends Piece {
 
-    private final String kingDistanceError = "King cannot move more than one squares per move";
-    private List<Pair<Integer, Integer>> possibleMoves;
+    private static final String kingDistanceError = "King cannot move more than one squares per move";
 
     /**
      * Constructor of the King class, child of abstract class Piece
@@ -25,17 +22,6 @@ public class King extends Piece {
     public King(Color color, Location location, Board board) {
 
         super(color, location, board);
-
-        this.possibleMoves = new ArrayList<>();
-
-        this.possibleMoves.add(new Pair<Integer,Integer>(0, 1));
-        this.possibleMoves.add(new Pair<Integer,Integer>(1, 1));
-        this.possibleMoves.add(new Pair<Integer,Integer>(1, 0));
-        this.possibleMoves.add(new Pair<Integer,Integer>(1, -1));
-        this.possibleMoves.add(new Pair<Integer,Integer>(0, -1));
-        this.possibleMoves.add(new Pair<Integer,Integer>(-1, -1));
-        this.possibleMoves.add(new Pair<Integer,Integer>(-1, 0));
-        this.possibleMoves.add(new Pair<Integer,Integer>(-1, 1));
     }
 
     /**
@@ -45,10 +31,9 @@ public class King extends Piece {
      */
     public void moveTo(Location newLoc) throws InvalidMoveException {
 
-        int dist = this.board.chebyshevDistance(this.location, newLoc);
-
-        if (dist > 1)
-            throw new InvalidMoveException(this.kingDistanceError);
+        // the king steps of every square are a shared table
+        if ((Bitboards.kingAttacks(this.location.getSquare()) & (1L << newLoc.getSquare())) == 0)
+            throw new InvalidMoveException(kingDistanceError);
 
         if (this.board.getPieceAt(newLoc) != null) {
 
@@ -61,24 +46,26 @@ public class King extends Piece {
 
     }
 
-    public List<Location> generatePath() {
-
-        List<Location> path = new ArrayList<>();
-
-        int currentRow = this.location.getRow() + 1;
-        int currentColumn = this.location.getCol() + 1;
-
-        for (Pair<Integer, Integer> possibleLoc : this.possibleMoves) {
+    /**
+     * Squares the king could reach on an empty board, read from a table shared by every king
+     *
+     * @return bitboard of the reachable squares
+     */
+    @Override
+    public long generateTargets() {
 
-            int newRow = currentRow + possibleLoc.firstObj;
-            int newCol = currentColumn + possibleLoc.secondObj;
+        return Bitboards.kingAttacks(this.location.getSquare());
+    }
 
-            if ((newRow >= 1 && newRow <= 8) && ((newCol >= 1 && newCol <= 8))) {
-                path.add(new Location(newRow, newCol));
-            }
-        }
+    /**
+     * Returns the type code of the king
+     *
+     * @return Pieces.KING
+     */
+    @Override
+    public int getType() {
 
-        return path;
+        return Pieces.KING;
     }
 
     /**
@@ -1,18 +1,14 @@
 package piece;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import Pair.Pair;
+import board.Bitboards;
 import board.Board;
+import board.Pieces;
 import enums.Color;
 import exceptions.InvalidMoveException;
 import location.Location;
 
 public class Knight extends Piece {
 
-    private List<Pair<Integer, Integer>> possibleMoves;
-
     /**
      * Constructor of the Knight class, child of abstract class Piece
      * calls the constructor of the parent class
@@ -24,17 +20,6 @@ public class Knight extends Piece {
     public Knight(Color color, Location location, Board board) {
 
         super(color, location, board);
-
-        this.possibleMoves = new ArrayList<>();
-
-        this.possibleMoves.add(new Pair<Integer, Integer>(2, 1));
-        this.possibleMoves.add(new Pair<Integer, Integer>(2, -1));
-        this.possibleMoves.add(new Pair<Integer, Integer>(1, 2));
-        this.possibleMoves.add(new Pair<Integer, Integer>(1, -2));
-        this.possibleMoves.add(new Pair<Integer, Integer>(-2, 1));
-        this.possibleMoves.add(new Pair<Integer, Integer>(-2, -1));
-        this.possibleMoves.add(new Pair<Integer, Integer>(-1, 2));
-        this.possibleMoves.add(new Pair<Integer, Integer>(-1, -2));
     }
 
     /**
@@ -44,8 +29,8 @@ public class Knight extends Piece {
      */
     public void moveTo(Location newLoc) throws InvalidMoveException {
 
-        if (!(this.board.knightMoveCheck(this.location.getCol(), newLoc.getCol(), this.location.getRow(),
-                newLoc.getRow()))) {
+        // the knight jumps of every square are a shared table
+        if ((Bitboards.knightAttacks(this.location.getSquare()) & (1L << newLoc.getSquare())) == 0) {
             throw new InvalidMoveException(
                     "Knight can move two squares vertically and one square horizontally, or two squares horizontally and one square vertically, forming an \"L\"");
         }
@@ -62,24 +47,26 @@ public class Knight extends Piece {
         return;
     }
 
-    public List<Location> generatePath() {
-
-        List<Location> path = new ArrayList<>();
-
-        int currentRow = this.location.getRow() + 1;
-        int currentColumn = this.location.getCol() + 1;
-
-        for (Pair<Integer, Integer> possibleLoc : this.possibleMoves) {
+    /**
+     * Squares the knight could reach on an empty board, read from a table shared by every knight
+     *
+     * @return bitboard of the reachable squares
+     */
+    @Override
+    public long generateTargets() {
 
-            int newRow = currentRow + possibleLoc.firstObj;
-            int newCol = currentColumn + possibleLoc.secondObj;
+        return Bitboards.knightAttacks(this.location.getSquare());
+    }
 
-            if ((newRow >= 1 && newRow <= 8) && ((newCol >= 1 && newCol <= 8))) {
-                path.add(new Location(newRow, newCol));
-            }
-        }
+    /**
+     * Returns the type code of the knight
+     *
+     * @return Pieces.KNIGHT
+     */
+    @Override
+    public int getType() {
 
-        return path;
+        return Pieces.KNIGHT;
     }
 
     /**
@@ -1,10 +1,8 @@
 package piece;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import Pair.Pair;
+import board.Bitboards;
 import board.Board;
+import board.Pieces;
 import enums.Color;
 import errorMessages.ErrorMessages;
 import exceptions.InvalidMoveException;
@@ -12,13 +10,11 @@ import location.Location;
 
 public class Pawn extends Piece {
 
-    private List<Pair<Integer, Integer>> possibleMoves;
-
-    private boolean hasMoved;
-
-    private final String cannotMoveMoreThanTwoOnFirstMove = "Pawn piece cannot move more than two squares on it's first move";
-    private final String cannotMoveMoreThanOneMove = "Pawn piece cannot move more than one square on it's move";
-    private final String differentColumnWithoutKill = "Given move of Pawn does not have the same column and there is not another opponents piece on the landing square";
+    private static final String cannotMoveMoreThanTwoOnFirstMove = "Pawn piece cannot move more than two squares on it's first move";
+    private static final String cannotMoveMoreThanOneMove = "Pawn piece cannot move more than one square on it's move";
+    private static final String onlyForward = "Pawn piece can only move forward";
+    private static final String onlyDiagonalCaptures = "Pawn piece can only capture diagonally";
+    private static final String differentColumnWithoutKill = "Given move of Pawn does not have the same column and there is not another opponents piece on the landing square";
 
     /**
      * Constructor of the Pawn class, child of abstract class Piece
@@ -32,15 +28,6 @@ public class Pawn extends Piece {
 
         // call the parent class constructor
         super(color, location, board);
-
-        this.hasMoved = false;
-
-        this.possibleMoves = new ArrayList<>();
-
-        this.possibleMoves.add(new Pair<Integer,Integer>(1, 0));
-        this.possibleMoves.add(new Pair<Integer,Integer>(2, 0));
-        this.possibleMoves.add(new Pair<Integer,Integer>(1, 1));
-        this.possibleMoves.add(new Pair<Integer,Integer>(1, -1));
     }
 
     /**
@@ -50,63 +37,98 @@ public class Pawn extends Piece {
      */
     public void moveTo(Location newLoc) throws InvalidMoveException {
 
-        int dist = this.board.chebyshevDistance(this.location, newLoc);
+        long target = 1L << newLoc.getSquare();
+
+        // pushes and captures come from the shared tables, see generateTargets
+        if ((this.generateTargets() & target) == 0) {
 
-        boolean isFirstPawnMove = (this.board.hasPawnMoved.get(this) == null);
+            int rowsForward = (newLoc.getRow() - this.location.getRow()) * ((this.color == Color.WHITE) ? 1 : -1);
 
-        if (isFirstPawnMove == true && dist > 2)
-            throw new InvalidMoveException(this.cannotMoveMoreThanTwoOnFirstMove);
+            if (rowsForward <= 0)
+                throw new InvalidMoveException(onlyForward);
 
-        if (isFirstPawnMove == false && dist > 1)
-            throw new InvalidMoveException(this.cannotMoveMoreThanOneMove);
+            if (this.hasMoved() == false)
+                throw new InvalidMoveException(cannotMoveMoreThanTwoOnFirstMove);
 
-        if (this.location.getCol() != newLoc.getCol() && this.board.getPieceAt(newLoc) == null)
-            throw new InvalidMoveException(differentColumnWithoutKill);
+            throw new InvalidMoveException(cannotMoveMoreThanOneMove);
+        }
+
+        Piece landingPiece = this.board.getPieceAt(newLoc);
 
-        if (this.location.getCol() != newLoc.getCol() && (this.board.getPieceAt(newLoc) != null
-                && this.board.getPieceAt(newLoc).color == this.color))
-            throw new InvalidMoveException(ErrorMessages.cannotStepOnYourPiecesErrorMessage);
+        if ((Bitboards.pawnAttacks(this.color.ordinal(), this.location.getSquare()) & target) != 0) {
 
-        if (this.board.freeVerticalPath(this.location, newLoc) == false)
-            throw new InvalidMoveException("Pawn " + ErrorMessages.cannotStepOverOtherPieces);
+            if (landingPiece == null)
+                throw new InvalidMoveException(differentColumnWithoutKill);
 
-        if (this.board.getPieceAt(newLoc) != null) {
+            if (landingPiece.color == this.color)
+                throw new InvalidMoveException(ErrorMessages.cannotStepOnYourPiecesErrorMessage);
+        } else {
+
+            if (this.board.freeVerticalPath(this.location, newLoc) == false)
+                throw new InvalidMoveException("Pawn " + ErrorMessages.cannotStepOverOtherPieces);
+
+            if (landingPiece != null)
+                throw new InvalidMoveException(onlyDiagonalCaptures);
+        }
+
+        if (landingPiece != null) {
 
             this.board.movePieceCapturing(this.location, newLoc);
 
             return;
         }
 
-        if (this.hasMoved == false) this.hasMoved = true;
-
         this.board.movePiece(this.location, newLoc);
 
         return;
     }
 
-    public List<Location> generatePath() {
+    /**
+     * Squares the pawn could reach on an empty board, its pushes and its captures
+     * in its own direction, the capture squares are read from a table shared by every pawn
+     *
+     * @return bitboard of the reachable squares
+     */
+    @Override
+    public long generateTargets() {
 
-        List<Location> path = new ArrayList<>();
+        int square = this.location.getSquare();
+        int forward = (this.color == Color.WHITE) ? 8 : -8;
 
-        int currentRow = this.location.getRow() + 1;
-        int currentColumn = this.location.getCol() + 1;
+        long targets = Bitboards.pawnAttacks(this.color.ordinal(), square);
 
-        for (Pair<Integer, Integer> possibleLoc : this.possibleMoves) {
+        // a pawn on its starting row may also move two squares
+        if (square + forward >= 0 && square + forward < 64) {
 
-            int newRow = currentRow + possibleLoc.firstObj;
-            int newCol = currentColumn + possibleLoc.secondObj;
+            targets |= 1L << (square + forward);
 
-            Location newLoc = new Location(newRow, newCol);
+            if (this.hasMoved() == false)
+                targets |= 1L << (square + forward + forward);
+        }
 
-            if (hasMoved == true && this.board.chebyshevDistance(this.location, newLoc) > 1)
-                continue;
+        return targets;
+    }
 
-            if ((newRow >= 1 && newRow <= 8) && (newCol >= 1 && newCol <= 8)) {
-                path.add(newLoc);
-            }
-        }
+    /**
+     * A pawn that has not moved yet is still on its starting row, the piece objects
+     * are a view of the board so the state is derived instead of stored
+     *
+     * @return true if the pawn has left its starting row
+     */
+    private boolean hasMoved() {
+
+        return this.location.getRow() != ((this.color == Color.WHITE) ? 1 : 6);
+    }
+
+    /**
+     * Returns the type code of the pawn
+     *
+     * @return Pieces.PAWN
+     */
+    @Override
+    public int getType() {
 
-        return path;
+        return Pieces.PAWN;
     }
 
     /**
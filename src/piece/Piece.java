@@ -1,5 +1,6 @@
 package piece;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import board.Board;
@@ -7,11 +8,16 @@ import enums.Color;
 import exceptions.InvalidMoveException;
 import location.Location;
 
+/**
+ * Class Piece, part of package piece
+ * A piece of the board view, it holds only its color, its location and its board,
+ * the squares a piece type can reach are read from tables shared by every piece
+ */
 public abstract class Piece {
 
-    public Color color;
+    public final Color color;
     public Location location;
-    public Board board;
+    public final Board board;
 
     /**
      * Constructor of abstract class Piece
@@ -33,5 +39,34 @@ public abstract class Piece {
      */
     public abstract void moveTo(Location newLoc) throws InvalidMoveException;
 
-    public abstract List<Location> generatePath();
+    /**
+     * Squares the piece could reach on an empty board, as a bitboard so nothing is allocated
+     * @return bitboard with bit ROW * 8 + COLUMN set for every reachable square
+     */
+    public abstract long generateTargets();
+
+    /**
+     * Squares the piece could reach on an empty board, as shared Location instances
+     * @return the reachable locations, ordered by square index
+     */
+    public List<Location> generatePath() {
+
+        long targets = this.generateTargets();
+
+        List<Location> path = new ArrayList<>(Long.bitCount(targets));
+
+        while (targets != 0) {
+
+            path.add(Location.of(Long.numberOfTrailingZeros(targets)));
+            targets &= targets - 1;
+        }
+
+        return path;
+    }
+
+    /**
+     * Returns the type of the piece as used by the bitboard board representation
+     * @return one of the piece type constants of board.Pieces
+     */
+    public abstract int getType();
 }
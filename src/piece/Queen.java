@@ -1,19 +1,17 @@
 package piece;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import Pair.Pair;
 import board.Board;
+import board.Magics;
+import board.Pieces;
 import enums.Color;
 import exceptions.InvalidMoveException;
 import location.Location;
 
 public class Queen extends Piece {
 
-    private List<Pair<Integer, Integer>> possibleMoves;
+    private static final String cannotGoOverPieces = "Queen cannot go over other pieces";
 
-    private final String cannotGoOverPieces = "Queen cannot go over other pieces";
+    private static final String onlyStraightLinesAndDiagonals = "Queen can only move along its row, column or diagonals";
 
     /**
      * Constructor of the Queen class, child of abstract class Piece
@@ -27,25 +25,6 @@ public class Queen extends Piece {
 
         // call the parent class constructor
         super(color, location, board);
-
-        this.possibleMoves = new ArrayList<>();
-
-        for(int i = 1; i <= 8; i++) {
-
-            possibleMoves.add(new Pair<Integer, Integer>(i, i));
-            possibleMoves.add(new Pair<Integer, Integer>(i, -i));
-            possibleMoves.add(new Pair<Integer, Integer>(-i, i));
-            possibleMoves.add(new Pair<Integer, Integer>(-i, -i));
-
-        }
-
-        for (int i = 1; i <= 8; i++) {
-
-            possibleMoves.add(new Pair<Integer, Integer>(i, 0));
-            possibleMoves.add(new Pair<Integer, Integer>(0, i));
-            possibleMoves.add(new Pair<Integer, Integer>(-i, 0));
-            possibleMoves.add(new Pair<Integer, Integer>(0, -i));
-        }
     }
 
     /**
@@ -55,25 +34,15 @@ public class Queen extends Piece {
      */
     public void moveTo(Location newLoc) throws InvalidMoveException {
 
-        int currentColumn = this.location.getCol();
-
-        if (newLoc.getCol() > currentColumn) {
-
-            if (this.board.freeDiagonalPath(this.location, newLoc) == false)
-                throw new InvalidMoveException(this.cannotGoOverPieces);
-        } else {
-
-            if (this.board.freeAntidiagonalPath(this.location, newLoc) == false)
-                throw new InvalidMoveException(this.cannotGoOverPieces);
-        }
+        int from = Board.squareOf(this.location);
+        long target = 1L << Board.squareOf(newLoc);
 
-        if (this.location.getCol() == newLoc.getCol()
-                && this.board.freeVerticalPath(this.location, newLoc) == false)
-            throw new InvalidMoveException("Rook piece cannot go over other pieces");
+        // attacks on an empty board are the lines the queen can slide on
+        if ((Magics.queenAttacks(from, 0L) & target) == 0)
+            throw new InvalidMoveException(onlyStraightLinesAndDiagonals);
 
-        if (this.location.getRow() == newLoc.getRow()
-                && this.board.freeHorizontalPath(this.location, newLoc) == false)
-            throw new InvalidMoveException("Rook piece cannot go over other pieces");
+        if ((Magics.queenAttacks(from, this.board.getOccupancy()) & target) == 0)
+            throw new InvalidMoveException(cannotGoOverPieces);
 
         if (this.board.getPieceAt(newLoc) != null) {
 
@@ -87,24 +56,26 @@ public class Queen extends Piece {
         return;
     }
 
-    public List<Location> generatePath() {
-
-        List<Location> path = new ArrayList<>();
-
-        int currentRow = this.location.getRow() + 1;
-        int currentColumn = this.location.getCol() + 1;
-
-        for (Pair<Integer, Integer> possibleLoc : this.possibleMoves) {
+    /**
+     * Squares the queen could reach on an empty board, read from a table shared by every queen
+     *
+     * @return bitboard of the reachable squares
+     */
+    @Override
+    public long generateTargets() {
 
-            int newRow = currentRow + possibleLoc.firstObj;
-            int newCol = currentColumn + possibleLoc.secondObj;
+        return Magics.queenAttacks(this.location.getSquare(), 0L);
+    }
 
-            if ((newRow >= 1 && newRow <= 8) && ((newCol >= 1 && newCol <= 8))) {
-                path.add(new Location(newRow, newCol));
-            }
-        }
+    /**
+     * Returns the type code of the queen
+     *
+     * @return Pieces.QUEEN
+     */
+    @Override
+    public int getType() {
 
-        return path;
+        return Pieces.QUEEN;
     }
 
     /**
@@ -1,17 +1,15 @@
 package piece;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import Pair.Pair;
 import board.Board;
+import board.Magics;
+import board.Pieces;
 import enums.Color;
 import exceptions.InvalidMoveException;
 import location.Location;
 
 public class Rook extends Piece {
 
-    private List<Pair<Integer, Integer>> possibleMoves;
+    private static final String onlyStraightLines = "Rook can only move along its row or column";
 
     /**
      * Constructor of the Rook class, child of abstract class Piece
@@ -25,16 +23,6 @@ public class Rook extends Piece {
 
         // call the parent class constructor
         super(color, location, board);
-
-        this.possibleMoves = new ArrayList<>();
-
-        for (int i = 1; i <= 8; i++) {
-
-            possibleMoves.add(new Pair<Integer, Integer>(i, 0));
-            possibleMoves.add(new Pair<Integer, Integer>(0, i));
-            possibleMoves.add(new Pair<Integer, Integer>(-i, 0));
-            possibleMoves.add(new Pair<Integer, Integer>(0, -i));
-        }
     }
 
     /**
@@ -44,12 +32,14 @@ public class Rook extends Piece {
      */
     public void moveTo(Location newLoc) throws InvalidMoveException {
 
-        if (this.location.getCol() == newLoc.getCol()
-                && this.board.freeVerticalPath(this.location, newLoc) == false)
-            throw new InvalidMoveException("Rook piece cannot go over other pieces");
+        int from = Board.squareOf(this.location);
+        long target = 1L << Board.squareOf(newLoc);
+
+        // attacks on an empty board are the rows and columns the rook can slide on
+        if ((Magics.rookAttacks(from, 0L) & target) == 0)
+            throw new InvalidMoveException(onlyStraightLines);
 
-        if (this.location.getRow() == newLoc.getRow()
-                && this.board.freeHorizontalPath(this.location, newLoc) == false)
+        if ((Magics.rookAttacks(from, this.board.getOccupancy()) & target) == 0)
             throw new InvalidMoveException("Rook piece cannot go over other pieces");
 
         if (this.board.getPieceAt(newLoc) != null) {
@@ -64,24 +54,26 @@ public class Rook extends Piece {
         return;
     }
 
-    public List<Location> generatePath() {
-
-        List<Location> path = new ArrayList<>();
-
-        int currentRow = this.location.getRow() + 1;
-        int currentColumn = this.location.getCol() + 1;
-
-        for (Pair<Integer, Integer> possibleLoc : this.possibleMoves) {
+    /**
+     * Squares the rook could reach on an empty board, read from a table shared by every rook
+     *
+     * @return bitboard of the reachable squares
+     */
+    @Override
+    public long generateTargets() {
 
-            int newRow = currentRow + possibleLoc.firstObj;
-            int newCol = currentColumn + possibleLoc.secondObj;
+        return Magics.rookAttacks(this.location.getSquare(), 0L);
+    }
 
-            if ((newRow >= 1 && newRow <= 8) && ((newCol >= 1 && newCol <= 8))) {
-                path.add(new Location(newRow, newCol));
-            }
-        }
+    /**
+     * Returns the type code of the rook
+     *
+     * @return Pieces.ROOK
+     */
+    @Override
+    public int getType() {
 
-        return path;
+        return Pieces.ROOK;
     }
 
     /**
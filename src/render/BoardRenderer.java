@@ -0,0 +1,179 @@
+package render;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+import board.Board;
+import board.Pieces;
+import enums.RenderMode;
+
+/**
+ * Class BoardRenderer, part of package render
+ * Prints a board through one reusable text buffer, so drawing allocates nothing after the first time
+ * in DIFF mode the board is drawn once at the top of an ANSI terminal, the rest of the output
+ * scrolls below it and later draws only move the cursor to the squares that changed
+ */
+public class BoardRenderer {
+
+    // lines of the drawn board, the letters above and below and the eight rows
+    private static final int BOARD_LINES = 10;
+
+    // first terminal line below the board and its blank separator line
+    private static final int FIRST_TEXT_LINE = BOARD_LINES + 2;
+
+    private static final String ESCAPE = "\033[";
+
+    private final PrintStream out;
+
+    private RenderMode mode;
+
+    private final StringBuilder text = new StringBuilder(256);
+
+    private byte[] bytes = new byte[256];
+
+    // piece codes on the terminal, valid while drawn is true
+    private final int[] drawnCodes = new int[64];
+
+    private boolean drawn;
+
+    /**
+     * @param out  stream the board is printed to
+     * @param mode how the board is printed
+     */
+    public BoardRenderer(PrintStream out, RenderMode mode) {
+
+        this.out = out;
+        this.mode = mode;
+    }
+
+    public RenderMode getMode() {
+
+        return this.mode;
+    }
+
+    /**
+     * Changes how the board is printed, leaving DIFF mode gives the terminal its whole screen back
+     *
+     * @param mode how the board is printed from now on
+     */
+    public void setMode(RenderMode mode) {
+
+        if (this.mode == RenderMode.DIFF && mode != RenderMode.DIFF)
+            this.close();
+
+        this.mode = mode;
+    }
+
+    /**
+     * Prints the board as the mode asks
+     *
+     * @param board board to print
+     */
+    public void render(Board board) {
+
+        if (this.mode == RenderMode.OFF)
+            return;
+
+        this.text.setLength(0);
+
+        if (this.mode == RenderMode.FULL)
+            board.appendTo(this.text).append('\n');
+        else if (this.drawn == false)
+            this.appendFirstDraw(board);
+        else
+            this.appendChangedSquares(board);
+
+        this.flush();
+    }
+
+    /**
+     * Forgets what is on the terminal, the next DIFF render draws the whole board again
+     */
+    public void invalidate() {
+
+        this.drawn = false;
+    }
+
+    /**
+     * Gives the terminal its whole screen back after DIFF renders
+     */
+    public void close() {
+
+        if (this.drawn == false)
+            return;
+
+        this.text.setLength(0);
+        // resetting the scroll region homes the cursor, it is put back where the text was
+        this.text.append("\0337").append(ESCAPE).append('r').append("\0338");
+
+        this.flush();
+
+        this.drawn = false;
+    }
+
+    // clears the screen, draws the board and keeps the scrolling text below it
+    private void appendFirstDraw(Board board) {
+
+        this.text.append(ESCAPE).append("2J").append(ESCAPE).append('H');
+
+        board.appendTo(this.text);
+
+        this.text.append(ESCAPE).append(FIRST_TEXT_LINE).append(";r");
+        this.text.append(ESCAPE).append(FIRST_TEXT_LINE).append(";1H");
+
+        for (int square = 0; square < 64; square++) {
+            this.drawnCodes[square] = board.getPieceCode(square);
+        }
+
+        this.drawn = true;
+    }
+
+    // moves the cursor to every changed square and back to where the text was
+    private void appendChangedSquares(Board board) {
+
+        int start = this.text.length();
+
+        this.text.append("\0337");
+
+        for (int square = 0; square < 64; square++) {
+
+            int code = board.getPieceCode(square);
+
+            if (code == this.drawnCodes[square])
+                continue;
+
+            // row 8 is on the second line, column a on the second column
+            int line = 2 + (7 - (square >>> 3));
+            int column = 2 + (square & 7);
+
+            this.text.append(ESCAPE).append(line).append(';').append(column).append('H');
+            this.text.append(Pieces.symbolOf(code));
+
+            this.drawnCodes[square] = code;
+        }
+
+        if (this.text.length() - start == 2)
+            this.text.setLength(start);
+        else
+            this.text.append("\0338");
+    }
+
+    // the text is ASCII, copied to bytes so the stream does not build a string of it
+    private void flush() {
+
+        int length = this.text.length();
+
+        if (length == 0)
+            return;
+
+        if (this.bytes.length < length)
+            this.bytes = Arrays.copyOf(this.bytes, Math.max(length, this.bytes.length * 2));
+
+        for (int i = 0; i < length; i++) {
+            this.bytes[i] = (byte) this.text.charAt(i);
+        }
+
+        this.out.write(this.bytes, 0, length);
+        this.out.flush();
+    }
+}
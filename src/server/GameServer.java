@@ -0,0 +1,272 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import engine.ParallelSearch;
+import engine.SearchLimits;
+import engine.TranspositionTable;
+
+/**
+ * Class GameServer, part of package server
+ * Hosts games over TCP, every connection is a session with its own board and game, see class Session
+ * sessions are served by virtual threads when the Java runtime has them (21 and later) and by
+ * a growing pool of platform threads otherwise, so thousands of mostly idle clients cost little
+ * the engines are few and shared, a session borrows one only while the engine plays its move
+ */
+public class GameServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 5555;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 5 * 60 * 1000;
+    public static final int DEFAULT_ENGINE_DEPTH = 4;
+
+    // seconds between two metric lines of the command line server
+    private static final int REPORT_INTERVAL_SECONDS = 10;
+
+    private final ServerSocket serverSocket;
+
+    private final ExecutorService sessionThreads;
+    private final boolean virtualThreads;
+
+    private final long idleTimeoutMillis;
+    private final SearchLimits engineLimits;
+
+    private final BlockingQueue<ParallelSearch> engines;
+    private final int engineCount;
+
+    // sockets of the running sessions, closing them wakes up sessions waiting for a command
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private final ServerMetrics metrics = new ServerMetrics();
+
+    private final AtomicLong nextSessionId = new AtomicLong(1);
+
+    /**
+     * Opens the server socket, sessions are accepted once run is called
+     *
+     * @param port              TCP port, 0 for any free port
+     * @param idleTimeoutMillis time a session may send nothing before it is closed
+     * @param engineLimits      budget of every engine move
+     * @param engineCount       number of engines the sessions share, at least 1
+     * @throws IOException if the port cannot be opened
+     */
+    public GameServer(int port, long idleTimeoutMillis, SearchLimits engineLimits, int engineCount) throws IOException {
+
+        this.serverSocket = new ServerSocket(port, 1024);
+
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.engineLimits = engineLimits;
+
+        // the engines share one table, it is safe for any number of searches
+        TranspositionTable table = new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB * 4);
+
+        this.engineCount = Math.max(1, engineCount);
+        this.engines = new ArrayBlockingQueue<ParallelSearch>(this.engineCount);
+
+        for (int i = 0; i < this.engineCount; i++) {
+            this.engines.add(new ParallelSearch(1, table));
+        }
+
+        ExecutorService virtual = newVirtualThreadExecutor();
+
+        this.virtualThreads = (virtual != null);
+        this.sessionThreads = (virtual != null) ? virtual : Executors.newCachedThreadPool(runnable -> {
+
+            Thread thread = new Thread(runnable, "game-session");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Uses Executors.newVirtualThreadPerTaskExecutor through reflection so the server
+     * still compiles and runs on runtimes older than Java 21
+     *
+     * @return an executor starting a virtual thread per task, null if the runtime has none
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+
+        try {
+
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException unsupported) {
+
+            return null;
+        }
+    }
+
+    /**
+     * Accepts clients until the server is closed, every client is served on its own thread
+     *
+     * @throws IOException if accepting fails for another reason than closing the server
+     */
+    public void run() throws IOException {
+
+        while (this.serverSocket.isClosed() == false) {
+
+            Socket socket;
+
+            try {
+
+                socket = this.serverSocket.accept();
+            } catch (SocketException closed) {
+
+                if (this.serverSocket.isClosed())
+                    break;
+
+                throw closed;
+            }
+
+            socket.setTcpNoDelay(true);
+
+            this.openSockets.add(socket);
+
+            try {
+
+                this.sessionThreads.execute(new Session(this, socket, this.nextSessionId.getAndIncrement()));
+            } catch (RejectedExecutionException closing) {
+
+                // the server was closed between accept and execute
+                this.sessionEnded(socket);
+                socket.close();
+                break;
+            }
+        }
+    }
+
+    public int getPort() {
+
+        return this.serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return true if sessions run on virtual threads, false for platform threads
+     */
+    public boolean usesVirtualThreads() {
+
+        return this.virtualThreads;
+    }
+
+    public ServerMetrics getMetrics() {
+
+        return this.metrics;
+    }
+
+    long getIdleTimeoutMillis() {
+
+        return this.idleTimeoutMillis;
+    }
+
+    SearchLimits getEngineLimits() {
+
+        return this.engineLimits;
+    }
+
+    /**
+     * Waits for a free engine
+     */
+    ParallelSearch borrowEngine() {
+
+        try {
+
+            return this.engines.take();
+        } catch (InterruptedException interrupted) {
+
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Server is shutting down", interrupted);
+        }
+    }
+
+    void returnEngine(ParallelSearch engine) {
+
+        this.engines.add(engine);
+    }
+
+    void sessionEnded(Socket socket) {
+
+        this.openSockets.remove(socket);
+    }
+
+    /**
+     * Stops accepting clients and closes the open sessions, the engines are shut down
+     * once the sessions searching with them have given them back
+     */
+    @Override
+    public void close() throws IOException {
+
+        if (this.closed.getAndSet(true))
+            return;
+
+        this.serverSocket.close();
+        this.sessionThreads.shutdownNow();
+
+        // interrupting does not wake up a thread blocked in readLine, closing its socket does
+        for (Socket socket : this.openSockets) {
+
+            try {
+
+                socket.close();
+            } catch (IOException ignored) {
+
+                // the session ends either way
+            }
+        }
+
+        try {
+
+            for (int i = 0; i < this.engineCount; i++) {
+                this.engines.take().shutdown();
+            }
+        } catch (InterruptedException interrupted) {
+
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Command line entry point, prints the metrics every few seconds
+     * java server.GameServer [port] [idle timeout in seconds] [engine depth]
+     */
+    public static void main(String[] args) throws IOException {
+
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        long idleTimeout = (args.length > 1) ? Long.parseLong(args[1]) * 1000 : DEFAULT_IDLE_TIMEOUT_MILLIS;
+        int depth = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_ENGINE_DEPTH;
+
+        GameServer server = new GameServer(port, idleTimeout, SearchLimits.depth(depth),
+                Runtime.getRuntime().availableProcessors());
+
+        System.out.println("Game server listening on port " + server.getPort() + ", sessions on "
+                + (server.usesVirtualThreads() ? "virtual" : "platform") + " threads");
+
+        Executors.newSingleThreadScheduledExecutor(runnable -> {
+
+            Thread thread = new Thread(runnable, "server-metrics");
+            thread.setDaemon(true);
+
+            return thread;
+        }).scheduleAtFixedRate(() -> System.out.println(server.getMetrics().snapshot()), REPORT_INTERVAL_SECONDS,
+                REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        server.run();
+    }
+}
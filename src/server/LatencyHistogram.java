@@ -0,0 +1,101 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class LatencyHistogram, part of package server
+ * Counts latencies in microseconds in buckets that widen with the value, so percentiles are
+ * read with an error of at most one eighth, recording is lock free and allocates nothing
+ * values below 16 have a bucket each, every power of two above is split in 8 buckets
+ */
+public class LatencyHistogram {
+
+    private static final int EXACT_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // powers of two from 16 microseconds up to beyond a day
+    private static final int POWERS = 34;
+
+    private final AtomicLongArray counts = new AtomicLongArray(EXACT_BUCKETS + (POWERS * SUB_BUCKETS));
+
+    /**
+     * @param nanos latency in nanoseconds
+     */
+    public void record(long nanos) {
+
+        this.counts.incrementAndGet(bucketOf(Math.max(0, nanos / 1000)));
+    }
+
+    /**
+     * @return the number of recorded latencies
+     */
+    public long getCount() {
+
+        long count = 0;
+
+        for (int i = 0; i < this.counts.length(); i++) {
+            count += this.counts.get(i);
+        }
+
+        return count;
+    }
+
+    /**
+     * @param percentile share of the latencies, e.g. 0.99
+     * @return the latency in microseconds the given share of the recorded latencies do not exceed,
+     *         0 when nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+
+        long count = this.getCount();
+
+        if (count == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+
+        for (int i = 0; i < this.counts.length(); i++) {
+
+            seen += this.counts.get(i);
+
+            if (seen >= rank)
+                return upperBoundOf(i);
+        }
+
+        return upperBoundOf(this.counts.length() - 1);
+    }
+
+    public void reset() {
+
+        for (int i = 0; i < this.counts.length(); i++) {
+            this.counts.set(i, 0);
+        }
+    }
+
+    private static int bucketOf(long micros) {
+
+        if (micros < EXACT_BUCKETS)
+            return (int) micros;
+
+        int power = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (power - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        int bucket = EXACT_BUCKETS + ((power - 4) * SUB_BUCKETS) + subBucket;
+
+        return Math.min(bucket, EXACT_BUCKETS + (POWERS * SUB_BUCKETS) - 1);
+    }
+
+    // largest value of a bucket
+    private static long upperBoundOf(int bucket) {
+
+        if (bucket < EXACT_BUCKETS)
+            return bucket;
+
+        int power = ((bucket - EXACT_BUCKETS) / SUB_BUCKETS) + 4;
+        int subBucket = (bucket - EXACT_BUCKETS) % SUB_BUCKETS;
+
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (power - SUB_BUCKET_BITS)) - 1;
+    }
+}
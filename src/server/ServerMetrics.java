@@ -0,0 +1,101 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class ServerMetrics, part of package server
+ * Counters of a game server, updated by all session threads without locks
+ * the move rate is measured between two calls of snapshot
+ */
+public class ServerMetrics {
+
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final LongAdder totalSessions = new LongAdder();
+    private final LongAdder evictedSessions = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+
+    // moves and time of the last snapshot
+    private long lastMoves;
+    private long lastNanos = System.nanoTime();
+
+    void sessionOpened() {
+
+        this.activeSessions.incrementAndGet();
+        this.totalSessions.increment();
+    }
+
+    void sessionClosed(boolean evicted) {
+
+        this.activeSessions.decrementAndGet();
+
+        if (evicted)
+            this.evictedSessions.increment();
+    }
+
+    /**
+     * Counts a move played on a board of a session, by a client or by an engine
+     */
+    void movePlayed() {
+
+        this.moves.increment();
+    }
+
+    /**
+     * @param nanos time taken to answer a MOVE command, including the reply of the engine,
+     *              rejected moves are timed as well
+     */
+    void moveAnswered(long nanos) {
+
+        this.moveLatency.record(nanos);
+    }
+
+    public int getActiveSessions() {
+
+        return this.activeSessions.get();
+    }
+
+    public long getTotalSessions() {
+
+        return this.totalSessions.sum();
+    }
+
+    public long getEvictedSessions() {
+
+        return this.evictedSessions.sum();
+    }
+
+    public long getMoves() {
+
+        return this.moves.sum();
+    }
+
+    public LatencyHistogram getMoveLatency() {
+
+        return this.moveLatency;
+    }
+
+    /**
+     * Describes the server and starts a new interval for the move rate
+     *
+     * @return active and total sessions, evicted sessions, moves per second since the last
+     *         snapshot and the 50th and 99th percentile move latencies
+     */
+    public synchronized String snapshot() {
+
+        long now = System.nanoTime();
+        long moves = this.moves.sum();
+
+        double movesPerSecond = (moves - this.lastMoves) * 1e9 / Math.max(1, now - this.lastNanos);
+
+        this.lastMoves = moves;
+        this.lastNanos = now;
+
+        return "sessions " + this.getActiveSessions() + " active, " + this.getTotalSessions() + " total, "
+                + this.getEvictedSessions() + " evicted, moves " + moves + ", "
+                + String.format("%.1f", movesPerSecond) + " moves/s, latency p50 "
+                + this.moveLatency.getPercentile(0.5) + " us, p99 " + this.moveLatency.getPercentile(0.99) + " us";
+    }
+}
@@ -0,0 +1,259 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+import board.Board;
+import board.Move;
+import engine.ParallelSearch;
+import enums.Color;
+import enums.GameStatus;
+import exceptions.GameoverException;
+import exceptions.InvalidLocationException;
+import exceptions.InvalidMoveException;
+import exceptions.NoInputGivenException;
+import game.Game;
+
+/**
+ * Class Session, part of package server
+ * One client connection of a game server, it owns its board and game and is served by one thread
+ * commands are lines of text, every command gets one answer line starting with OK, ERR or BYE
+ * a session that sends nothing for the idle timeout of the server is closed
+ *
+ * NEW [white|black]  starts a new game, the engine plays the given color, none when left out
+ * MOVE e2e4          plays a move, answered with OK, the status and the reply of the engine if it has to move
+ * ENGINE             lets the engine play the side to move
+ * STATE              position in FEN, status and plies played
+ * LEGAL              legal moves of the side to move
+ * STATS              metrics of the server
+ * QUIT               closes the session
+ */
+public class Session implements Runnable {
+
+    private final GameServer server;
+    private final Socket socket;
+    private final long id;
+
+    private Game game;
+
+    // color played by the engine, null when the client plays both colors
+    private Color engineColor;
+
+    private final int[] moves = new int[Move.MAX_MOVES];
+
+    private final StringBuilder answer = new StringBuilder(128);
+
+    Session(GameServer server, Socket socket, long id) {
+
+        this.server = server;
+        this.socket = socket;
+        this.id = id;
+        this.game = new Game(new Board());
+    }
+
+    @Override
+    public void run() {
+
+        boolean evicted = false;
+
+        this.server.getMetrics().sessionOpened();
+
+        try (Socket socket = this.socket;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                Writer out = new BufferedWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+
+            socket.setSoTimeout((int) this.server.getIdleTimeoutMillis());
+
+            this.send(out, "OK session " + this.id);
+
+            while (true) {
+
+                String line;
+
+                try {
+
+                    line = in.readLine();
+                } catch (SocketTimeoutException idle) {
+
+                    evicted = true;
+                    this.send(out, "BYE idle");
+                    break;
+                }
+
+                if (line == null)
+                    break;
+
+                if (this.handle(line.trim(), out) == false)
+                    break;
+            }
+        } catch (IOException ioException) {
+
+            // the client went away, nothing is left to answer
+        } finally {
+
+            this.server.sessionEnded(this.socket);
+            this.server.getMetrics().sessionClosed(evicted);
+        }
+    }
+
+    /**
+     * @return false once the session has to be closed
+     */
+    private boolean handle(String command, Writer out) throws IOException {
+
+        int space = command.indexOf(' ');
+
+        String name = ((space == -1) ? command : command.substring(0, space)).toUpperCase();
+        String argument = (space == -1) ? "" : command.substring(space + 1).trim();
+
+        switch (name) {
+
+            case "NEW":
+                this.newGame(argument, out);
+                break;
+            case "MOVE":
+                this.move(argument, out);
+                break;
+            case "ENGINE":
+                this.engineMove(out);
+                break;
+            case "STATE":
+                this.send(out, "OK " + this.game.getFen() + " " + this.game.getStatus() + " " + this.game.getPlyCount());
+                break;
+            case "LEGAL":
+                this.legalMoves(out);
+                break;
+            case "STATS":
+                this.send(out, "OK " + this.server.getMetrics().snapshot());
+                break;
+            case "QUIT":
+                this.send(out, "BYE");
+                return false;
+            default:
+                this.send(out, "ERR unknown command " + name);
+                break;
+        }
+
+        return true;
+    }
+
+    private void newGame(String color, Writer out) throws IOException {
+
+        this.game = new Game(new Board());
+
+        if (color.equalsIgnoreCase("white"))
+            this.engineColor = Color.WHITE;
+        else if (color.equalsIgnoreCase("black"))
+            this.engineColor = Color.BLACK;
+        else
+            this.engineColor = null;
+
+        this.answer.setLength(0);
+        this.answer.append("OK new game");
+
+        // an engine playing white opens the game
+        if (this.engineColor == Color.WHITE)
+            this.appendEngineMove();
+
+        this.send(out, this.answer);
+    }
+
+    private void move(String moveString, Writer out) throws IOException {
+
+        long start = System.nanoTime();
+
+        this.answer.setLength(0);
+
+        try {
+
+            this.game.submitMove(moveString);
+            this.server.getMetrics().movePlayed();
+
+            this.answer.append("OK ").append(this.game.getStatus());
+
+            if (this.engineColor == this.game.getPlayingColor() && this.game.getStatus().isOver() == false)
+                this.appendEngineMove();
+        } catch (InvalidLocationException | InvalidMoveException | NoInputGivenException | GameoverException exception) {
+
+            this.answer.setLength(0);
+            this.answer.append("ERR ").append(oneLine(exception.getMessage()));
+        }
+
+        this.send(out, this.answer);
+
+        this.server.getMetrics().moveAnswered(System.nanoTime() - start);
+    }
+
+    private void engineMove(Writer out) throws IOException {
+
+        this.answer.setLength(0);
+        this.answer.append("OK");
+
+        this.appendEngineMove();
+
+        this.send(out, this.answer);
+    }
+
+    // the engines are shared by all sessions, one is borrowed for the move
+    private void appendEngineMove() {
+
+        ParallelSearch engine = this.server.borrowEngine();
+
+        try {
+
+            this.game.setEngine(engine, this.server.getEngineLimits());
+
+            int move = this.game.playEngineMove();
+            this.server.getMetrics().movePlayed();
+
+            this.answer.append(" engine ");
+            Move.appendTo(move, this.answer);
+            this.answer.append(' ').append(this.game.getStatus());
+        } catch (GameoverException gameOver) {
+
+            this.answer.append(" engine none ").append(this.game.getStatus());
+        } finally {
+
+            this.game.setEngine(null, null);
+            this.server.returnEngine(engine);
+        }
+    }
+
+    private void legalMoves(Writer out) throws IOException {
+
+        GameStatus status = this.game.getStatus();
+        int count = status.isOver() ? 0 : this.game.getLegalMoves(this.moves);
+
+        this.answer.setLength(0);
+        this.answer.append("OK ").append(count);
+
+        for (int i = 0; i < count; i++) {
+
+            this.answer.append(' ');
+            Move.appendTo(this.moves[i], this.answer);
+        }
+
+        this.send(out, this.answer);
+    }
+
+    private void send(Writer out, CharSequence line) throws IOException {
+
+        out.append(line).append('\n');
+        out.flush();
+    }
+
+    // game messages may span lines, the protocol answers with one
+    private static String oneLine(String message) {
+
+        return message.trim().replace('\n', ' ');
+    }
+}
@@ -0,0 +1,110 @@
+package tablebase;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Class BlockCache, part of package tablebase
+ * Bounded least recently used cache of decompressed blocks, shared by all probing threads
+ * the cache is split into segments with a lock each so threads probing different
+ * blocks rarely wait for each other, every segment evicts its own oldest block
+ */
+public class BlockCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    /**
+     * @param capacity number of blocks kept, at least one per segment
+     */
+    public BlockCache(int capacity) {
+
+        int perSegment = Math.max(1, capacity / SEGMENTS);
+
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /**
+     * @param key key of the block, see key()
+     * @return the cached block, null if it is not cached
+     */
+    public byte[] get(long key) {
+
+        Segment segment = this.segmentOf(key);
+
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    /**
+     * Caches a block, the least recently used block of its segment may be evicted
+     */
+    public void put(long key, byte[] block) {
+
+        Segment segment = this.segmentOf(key);
+
+        synchronized (segment) {
+            segment.put(key, block);
+        }
+    }
+
+    /**
+     * @return the number of cached blocks
+     */
+    public int size() {
+
+        int size = 0;
+
+        for (Segment segment : this.segments) {
+
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * @param fileId id of the table
+     * @param block  number of the block in the table
+     * @return the cache key of the block
+     */
+    public static long key(int fileId, int block) {
+
+        return ((long) fileId << 32) | (block & 0xFFFFFFFFL);
+    }
+
+    private Segment segmentOf(long key) {
+
+        long mixed = key * 0x9E3779B97F4A7C15L;
+
+        return this.segments[(int) (mixed >>> 60)];
+    }
+
+    /**
+     * Access ordered map dropping its eldest entry beyond its capacity
+     */
+    private static final class Segment extends LinkedHashMap<Long, byte[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Segment(int capacity) {
+
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+
+            return this.size() > this.capacity;
+        }
+    }
+}
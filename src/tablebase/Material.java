@@ -0,0 +1,182 @@
+package tablebase;
+
+import board.Board;
+import board.Pieces;
+
+/**
+ * Class Material, part of package tablebase
+ * Material signatures ("KQvK", "KRvKB") and the piece order of their tables
+ * every table lists the two kings first, then the other white pieces and the other
+ * black pieces from the queen down to the pawn
+ */
+public final class Material {
+
+    private static final String LETTERS = "PNBRQK";
+
+    private Material() {
+    }
+
+    /**
+     * @param board        position
+     * @param swapColors   true to write black's pieces first, as if the colors were exchanged
+     * @return the material signature of the position
+     */
+    public static String signatureOf(Board board, boolean swapColors) {
+
+        StringBuilder signature = new StringBuilder(12);
+
+        int first = swapColors ? Pieces.BLACK : Pieces.WHITE;
+
+        appendSide(board, first, signature);
+        signature.append('v');
+        appendSide(board, first ^ 1, signature);
+
+        return signature.toString();
+    }
+
+    /**
+     * @param board      position
+     * @param swapColors true to count the pieces as if the colors were exchanged
+     * @return a number identifying the material of the position, four bits per piece code
+     */
+    public static long keyOf(Board board, boolean swapColors) {
+
+        long key = 0L;
+
+        for (int code = 0; code < Pieces.CODES; code++) {
+
+            int count = Long.bitCount(board.getBitboard(swapColors ? swapColor(code) : code));
+
+            key |= (long) count << (4 * code);
+        }
+
+        return key;
+    }
+
+    /**
+     * @param codes piece codes of a table
+     * @return the number identifying the material of the table, as keyOf of its positions
+     */
+    public static long keyOf(int[] codes) {
+
+        long key = 0L;
+
+        for (int code : codes) {
+            key += 1L << (4 * code);
+        }
+
+        return key;
+    }
+
+    private static void appendSide(Board board, int color, StringBuilder signature) {
+
+        for (int type = Pieces.KING; type >= Pieces.PAWN; type--) {
+
+            int count = Long.bitCount(board.getBitboard(Pieces.code(color, type)));
+
+            for (int i = 0; i < count; i++) {
+                signature.append(LETTERS.charAt(type));
+            }
+        }
+    }
+
+    /**
+     * @param signature material signature, e.g. "KQvK"
+     * @return the piece codes of the table in index order, null if the signature is not valid
+     */
+    public static int[] piecesOf(String signature) {
+
+        int separator = signature.indexOf('v');
+
+        if (separator < 1 || signature.charAt(0) != 'K' || separator + 1 >= signature.length()
+                || signature.charAt(separator + 1) != 'K')
+            return null;
+
+        int[] codes = new int[signature.length() - 1];
+        int count = 0;
+
+        codes[count++] = Pieces.WHITE_KING;
+        codes[count++] = Pieces.BLACK_KING;
+
+        for (int i = 1; i < signature.length(); i++) {
+
+            if (i == separator || i == separator + 1)
+                continue;
+
+            int type = LETTERS.indexOf(signature.charAt(i));
+
+            if (type == -1 || type == Pieces.KING)
+                return null;
+
+            codes[count++] = Pieces.code((i < separator) ? Pieces.WHITE : Pieces.BLACK, type);
+        }
+
+        return codes;
+    }
+
+    /**
+     * Only kings and at most one knight or bishop can never mate
+     *
+     * @param board position
+     * @return true if neither side can ever give mate
+     */
+    public static boolean isInsufficient(Board board) {
+
+        long occupancy = board.getOccupancy();
+
+        if (Long.bitCount(occupancy) > 3)
+            return false;
+
+        long minors = board.getBitboard(Pieces.WHITE_KNIGHT) | board.getBitboard(Pieces.WHITE_BISHOP)
+                | board.getBitboard(Pieces.BLACK_KNIGHT) | board.getBitboard(Pieces.BLACK_BISHOP);
+
+        return Long.bitCount(occupancy) == 2 || minors != 0;
+    }
+
+    /**
+     * Computes the position index of a board in a table, the two boards of a position
+     * and of its color exchanged mirror get the same index
+     *
+     * @param board      position, must hold exactly the pieces of the table
+     * @param codes      piece codes of the table in index order
+     * @param swapColors true if the table describes the position with the colors exchanged
+     * @return the index of the position
+     */
+    public static long indexOf(Board board, int[] codes, boolean swapColors) {
+
+        int side = board.getSideToMove();
+
+        long index = swapColors ? side ^ 1 : side;
+        long remaining = 0L;
+
+        for (int i = 0; i < codes.length; i++) {
+
+            int code = codes[i];
+
+            // pieces of the same kind take the squares in increasing order
+            if (i == 0 || code != codes[i - 1])
+                remaining = board.getBitboard(swapColors ? swapColor(code) : code);
+
+            int square = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+
+            index = (index * 64) + (swapColors ? square ^ 56 : square);
+        }
+
+        return index;
+    }
+
+    /**
+     * @param pieces number of pieces of a table
+     * @return the number of indices of the table, two sides to move times 64 squares per piece
+     */
+    public static long positionsOf(int pieces) {
+
+        return 2L << (6 * pieces);
+    }
+
+    static int swapColor(int code) {
+
+        return (code < Pieces.TYPES) ? code + Pieces.TYPES : code - Pieces.TYPES;
+    }
+}
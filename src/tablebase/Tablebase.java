@@ -0,0 +1,237 @@
+package tablebase;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import board.Board;
+import exceptions.InvalidFenException;
+
+/**
+ * Class Tablebase, part of package tablebase
+ * Exact results of endgame positions, looked up in the tables of a directory
+ * a result is a byte from the side to move's point of view, 0 for a draw, n > 0 for a
+ * win with mate in n plies and -n - 1 for a loss where the side to move is mated in n plies
+ * a table also answers the positions with the colors exchanged (a KvKQ position is found
+ * in the KQvK table), positions with castling rights or an en passant square are not covered
+ * decompressed blocks are kept in a shared LRU cache, probing is thread safe
+ */
+public class Tablebase implements Closeable {
+
+    public static final int DEFAULT_CACHE_BLOCKS = 1024;
+
+    // returned when no table holds the position
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    public static final int LOSS = -1;
+    public static final int DRAW = 0;
+    public static final int WIN = 1;
+
+    // tables by the material key of their positions, see Material.keyOf
+    private final Map<Long, TablebaseFile> files = new HashMap<Long, TablebaseFile>();
+
+    private final BlockCache cache;
+
+    private final TablebaseMetrics metrics = new TablebaseMetrics();
+
+    private int maxPieces;
+
+    private int nextFileId;
+
+    /**
+     * Opens every table of a directory
+     *
+     * @param directory   directory holding the .ctb files
+     * @param cacheBlocks number of decompressed blocks kept in memory
+     * @throws IOException if a table cannot be read
+     */
+    public Tablebase(Path directory, int cacheBlocks) throws IOException {
+
+        this.cache = new BlockCache(cacheBlocks);
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + TablebaseFile.EXTENSION)) {
+
+            for (Path path : stream) {
+                this.addFile(path);
+            }
+        }
+    }
+
+    /**
+     * Opens a table written after the tablebase was created, used while generating tables
+     *
+     * @param path table file
+     * @throws IOException if the table cannot be read
+     */
+    public void addFile(Path path) throws IOException {
+
+        TablebaseFile file = new TablebaseFile(path, this.nextFileId++);
+
+        TablebaseFile replaced = this.files.put(Material.keyOf(file.getCodes()), file);
+
+        if (replaced != null)
+            replaced.close();
+
+        this.maxPieces = Math.max(this.maxPieces, file.getCodes().length);
+    }
+
+    /**
+     * @return the number of pieces of the largest table, 0 when there is none
+     */
+    public int getMaxPieces() {
+
+        return this.maxPieces;
+    }
+
+    /**
+     * @return the number of tables
+     */
+    public int getTableCount() {
+
+        return this.files.size();
+    }
+
+    public TablebaseMetrics getMetrics() {
+
+        return this.metrics;
+    }
+
+    /**
+     * Looks up a position
+     *
+     * @param board position to look up
+     * @return the result of the position, see the class description, NOT_FOUND if no table holds it
+     * @throws UncheckedIOException if a table cannot be read
+     */
+    public int probe(Board board) {
+
+        long start = System.nanoTime();
+
+        int result = this.lookUp(board);
+
+        this.metrics.recordProbe(result != NOT_FOUND, System.nanoTime() - start);
+
+        return result;
+    }
+
+    private int lookUp(Board board) {
+
+        if (Long.bitCount(board.getOccupancy()) > this.maxPieces || board.getCastlingRights() != 0
+                || board.getEnPassantSquare() != Board.NO_SQUARE)
+            return NOT_FOUND;
+
+        boolean swapColors = false;
+        TablebaseFile file = this.files.get(Material.keyOf(board, false));
+
+        if (file == null) {
+
+            swapColors = true;
+            file = this.files.get(Material.keyOf(board, true));
+        }
+
+        if (file == null)
+            return NOT_FOUND;
+
+        long index = Material.indexOf(board, file.getCodes(), swapColors);
+
+        int block = (int) (index / file.getBlockSize());
+        long key = BlockCache.key(file.getId(), block);
+
+        byte[] results = this.cache.get(key);
+
+        if (results != null) {
+
+            this.metrics.recordCacheHit();
+        } else {
+
+            this.metrics.recordCacheMiss();
+
+            try {
+
+                results = file.readBlock(block);
+            } catch (IOException ioException) {
+
+                throw new UncheckedIOException(ioException);
+            }
+
+            this.cache.put(key, results);
+        }
+
+        return results[(int) (index % file.getBlockSize())];
+    }
+
+    /**
+     * @param result result of a probe
+     * @return WIN, DRAW or LOSS for the side to move
+     */
+    public static int wdl(int result) {
+
+        return (result > 0) ? WIN : (result < 0) ? LOSS : DRAW;
+    }
+
+    /**
+     * @param result result of a probe
+     * @return the plies until mate, 0 for a draw
+     */
+    public static int distance(int result) {
+
+        return (result > 0) ? result : (result < 0) ? -result - 1 : 0;
+    }
+
+    /**
+     * @param wdl      WIN, DRAW or LOSS for the side to move
+     * @param distance plies until mate, ignored for a draw
+     * @return the result stored for the position
+     */
+    static int encode(int wdl, int distance) {
+
+        return (wdl == WIN) ? distance : (wdl == LOSS) ? -distance - 1 : 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        for (TablebaseFile file : this.files.values()) {
+            file.close();
+        }
+    }
+
+    /**
+     * Command line entry point, prints the result of a position
+     * java tablebase.Tablebase <directory> <fen>
+     */
+    public static void main(String[] args) throws IOException, InvalidFenException {
+
+        if (args.length < 2) {
+
+            System.out.println("Usage: java tablebase.Tablebase <directory> <fen>");
+            return;
+        }
+
+        StringBuilder fen = new StringBuilder();
+
+        for (int i = 1; i < args.length; i++) {
+            fen.append(args[i]).append(' ');
+        }
+
+        try (Tablebase tablebase = new Tablebase(Paths.get(args[0]), DEFAULT_CACHE_BLOCKS)) {
+
+            int result = tablebase.probe(new Board(fen.toString().trim()));
+
+            if (result == NOT_FOUND)
+                System.out.println("Not in the tablebase");
+            else if (result == 0)
+                System.out.println("Draw");
+            else
+                System.out.println(((result > 0) ? "Win" : "Loss") + ", mate in " + distance(result) + " plies");
+
+            System.out.println(tablebase.getMetrics());
+        }
+    }
+}
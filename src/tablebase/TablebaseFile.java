@@ -0,0 +1,172 @@
+package tablebase;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Class TablebaseFile, part of package tablebase
+ * One table of results on disk, written by class TablebaseGenerator
+ * the results are one byte per position index, cut into blocks that are deflate compressed
+ * on their own so a probe only decompresses the block holding its position
+ *
+ * layout, all numbers big endian:
+ * header   int magic, short version, short piece count, int block size, int block count,
+ *          one byte per piece code in index order
+ * offsets  block count + 1 longs, the file offset of every block and the end of the last one
+ * blocks   deflate compressed results
+ */
+public class TablebaseFile implements Closeable {
+
+    public static final String EXTENSION = ".ctb";
+
+    static final int MAGIC = 0x43544231;
+    static final short VERSION = 1;
+
+    private final String signature;
+    private final int[] codes;
+    private final int blockSize;
+    private final long[] offsets;
+
+    private final FileChannel channel;
+
+    // id of the file in its tablebase, part of the cache keys of its blocks
+    private final int id;
+
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+
+    /**
+     * Opens a table and reads its header and block offsets
+     *
+     * @param path table file
+     * @param id   id of the file in its tablebase
+     * @throws IOException if the file cannot be read or is not a table
+     */
+    public TablebaseFile(Path path, int id) throws IOException {
+
+        this.channel = FileChannel.open(path);
+        this.id = id;
+
+        String name = path.getFileName().toString();
+        this.signature = name.substring(0, name.length() - EXTENSION.length());
+
+        try {
+
+            ByteBuffer header = this.read(0, 16);
+
+            if (header.getInt() != MAGIC || header.getShort() != VERSION)
+                throw new IOException("Not a tablebase file or unsupported version: " + path);
+
+            int pieceCount = header.getShort();
+            this.blockSize = header.getInt();
+            int blockCount = header.getInt();
+
+            ByteBuffer pieces = this.read(16, pieceCount);
+            this.codes = new int[pieceCount];
+
+            for (int i = 0; i < pieceCount; i++) {
+                this.codes[i] = pieces.get();
+            }
+
+            int[] expected = Material.piecesOf(this.signature);
+
+            if (expected == null || Arrays.equals(expected, this.codes) == false)
+                throw new IOException("Tablebase file name does not match its pieces: " + path);
+
+            ByteBuffer offsetBuffer = this.read(16 + pieceCount, (blockCount + 1) * Long.BYTES);
+            this.offsets = new long[blockCount + 1];
+
+            for (int i = 0; i <= blockCount; i++) {
+                this.offsets[i] = offsetBuffer.getLong();
+            }
+        } catch (IOException ioException) {
+
+            this.channel.close();
+            throw ioException;
+        }
+    }
+
+    public String getSignature() {
+
+        return this.signature;
+    }
+
+    int[] getCodes() {
+
+        return this.codes;
+    }
+
+    int getId() {
+
+        return this.id;
+    }
+
+    int getBlockSize() {
+
+        return this.blockSize;
+    }
+
+    /**
+     * Reads and decompresses one block
+     *
+     * @param block number of the block
+     * @return the results of the block, blockSize bytes
+     * @throws IOException if the block cannot be read or is corrupt
+     */
+    byte[] readBlock(int block) throws IOException {
+
+        if (block < 0 || block >= this.offsets.length - 1)
+            throw new IOException("Block " + block + " outside of tablebase " + this.signature);
+
+        long start = this.offsets[block];
+        int length = (int) (this.offsets[block + 1] - start);
+
+        ByteBuffer compressed = this.read(start, length);
+
+        byte[] results = new byte[this.blockSize];
+
+        Inflater inflater = INFLATERS.get();
+        inflater.reset();
+        inflater.setInput(compressed.array(), 0, length);
+
+        try {
+
+            int inflated = inflater.inflate(results);
+
+            if (inflated != this.blockSize)
+                throw new IOException("Corrupt block " + block + " in tablebase " + this.signature);
+        } catch (DataFormatException formatException) {
+
+            throw new IOException("Corrupt block " + block + " in tablebase " + this.signature, formatException);
+        }
+
+        return results;
+    }
+
+    // positional reads, safe from any number of threads
+    private ByteBuffer read(long position, int length) throws IOException {
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+
+        while (buffer.hasRemaining()) {
+
+            if (this.channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("Unexpected end of tablebase file " + this.signature);
+        }
+
+        buffer.flip();
+
+        return buffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        this.channel.close();
+    }
+}
@@ -0,0 +1,360 @@
+package tablebase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import board.Board;
+import board.Move;
+import board.Pieces;
+
+/**
+ * Class TablebaseGenerator, part of package tablebase
+ * Computes the table of a material signature by retrograde value iteration and writes it
+ * pass 0 finds the mates and stalemates, pass d then finds the wins in d plies (a move to a
+ * position lost in d - 1) and the losses in d plies (every move reaches a position won in
+ * at most d - 1, one of them in exactly d - 1), whatever is never resolved is a draw
+ * captures and promotions leave the table, their results come from the tables of the smaller
+ * material that have to be generated first, the directory must hold them
+ * en passant captures right after a double pawn push are not considered
+ */
+public class TablebaseGenerator {
+
+    // tables beyond 4 pieces do not fit in one array of results
+    public static final int MAX_PIECES = 4;
+
+    static final int BLOCK_SIZE = 8192;
+
+    // distances are stored in one signed byte
+    private static final int MAX_DISTANCE = 126;
+
+    private final Tablebase tablebase;
+
+    private final Board board = new Board();
+
+    private final int[] moves = new int[256];
+
+    private final int[] squares = new int[MAX_PIECES];
+
+    /**
+     * @param tablebase tables of the smaller materials, probed for captures and promotions
+     */
+    public TablebaseGenerator(Tablebase tablebase) {
+
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Generates a table and writes it to the directory, the file is named after the signature
+     *
+     * @param directory directory of the tables
+     * @param signature material signature, e.g. "KQvK"
+     * @return the written table
+     * @throws IOException if the signature is not valid, a smaller table is missing or the file cannot be written
+     */
+    public Path generate(Path directory, String signature) throws IOException {
+
+        int[] codes = Material.piecesOf(signature);
+
+        if (codes == null || codes.length > MAX_PIECES)
+            throw new IOException("Cannot generate a table for " + signature + ", at most " + MAX_PIECES + " pieces");
+
+        for (int i = 3; i < codes.length; i++) {
+
+            if (codes[i] != codes[i - 1] && Pieces.colorOf(codes[i]) == Pieces.colorOf(codes[i - 1])
+                    && Pieces.typeOf(codes[i]) > Pieces.typeOf(codes[i - 1]))
+                throw new IOException("Pieces of " + signature + " must be listed from the queen down to the pawn");
+        }
+
+        int size = (int) Material.positionsOf(codes.length);
+
+        byte[] results = new byte[size];
+        boolean[] resolved = new boolean[size];
+
+        this.resolveTerminal(codes, results, resolved);
+
+        int maxExternal = 0;
+
+        for (int distance = 1;; distance++) {
+
+            int[] pass = this.resolvePass(codes, results, resolved, distance);
+
+            maxExternal = Math.max(maxExternal, pass[1]);
+
+            if (pass[0] == 0 && distance > maxExternal)
+                break;
+
+            if (distance == MAX_DISTANCE)
+                throw new IOException("Mate distances of " + signature + " do not fit in a table");
+        }
+
+        Path path = directory.resolve(signature + TablebaseFile.EXTENSION);
+
+        write(path, codes, results);
+
+        return path;
+    }
+
+    // pass 0, stores the mates, stalemates and illegal positions
+    private void resolveTerminal(int[] codes, byte[] results, boolean[] resolved) {
+
+        for (int index = 0; index < results.length; index++) {
+
+            if (this.setUp(codes, index) == false) {
+
+                resolved[index] = true;
+                continue;
+            }
+
+            int count = this.board.generateLegalMoves(this.moves);
+
+            if (count == 0) {
+
+                results[index] = (byte) (this.board.isInCheck() ? Tablebase.encode(Tablebase.LOSS, 0) : 0);
+                resolved[index] = true;
+            }
+        }
+    }
+
+    // pass d, returns the positions resolved and the longest distance of a smaller table seen
+    private int[] resolvePass(int[] codes, byte[] results, boolean[] resolved, int distance) throws IOException {
+
+        int changed = 0;
+        int maxExternal = 0;
+
+        int lostChild = Tablebase.encode(Tablebase.LOSS, distance - 1);
+
+        for (int index = 0; index < results.length; index++) {
+
+            if (resolved[index] == true)
+                continue;
+
+            this.setUp(codes, index);
+
+            int count = this.board.generateLegalMoves(this.moves);
+
+            boolean win = false;
+            boolean allWon = true;
+            int longestWin = 0;
+
+            for (int i = 0; i < count && win == false; i++) {
+
+                int move = this.moves[i];
+                int child = this.externalResult(codes, move);
+
+                if (child != Tablebase.NOT_FOUND) {
+
+                    maxExternal = Math.max(maxExternal, Tablebase.distance(child));
+                } else {
+
+                    this.board.makeMove(move);
+                    int childIndex = (int) Material.indexOf(this.board, codes, false);
+                    this.board.unmakeMove();
+
+                    child = (resolved[childIndex] == true) ? results[childIndex] : Tablebase.NOT_FOUND;
+                }
+
+                if (child == lostChild) {
+
+                    win = true;
+                } else if (child == Tablebase.NOT_FOUND || child <= 0) {
+
+                    allWon = false;
+                } else {
+
+                    longestWin = Math.max(longestWin, child);
+                }
+            }
+
+            if (win == true) {
+
+                results[index] = (byte) Tablebase.encode(Tablebase.WIN, distance);
+            } else if (allWon == true && longestWin == distance - 1) {
+
+                results[index] = (byte) Tablebase.encode(Tablebase.LOSS, distance);
+            } else {
+
+                continue;
+            }
+
+            resolved[index] = true;
+            changed++;
+        }
+
+        return new int[] { changed, maxExternal };
+    }
+
+    /**
+     * Places the pieces of an index on the board
+     *
+     * @return false if the index is not a legal position, or not the first index of its position
+     */
+    private boolean setUp(int[] codes, int index) {
+
+        this.board.clear();
+
+        int remaining = index;
+        int[] squares = this.squares;
+
+        for (int i = codes.length - 1; i >= 0; i--) {
+
+            squares[i] = remaining & 63;
+            remaining >>>= 6;
+        }
+
+        long placed = 0L;
+
+        for (int i = 0; i < codes.length; i++) {
+
+            int square = squares[i];
+            long bit = 1L << square;
+
+            if ((placed & bit) != 0L)
+                return false;
+
+            // pieces of the same kind take the squares in increasing order, see Material.indexOf
+            if (i > 0 && codes[i] == codes[i - 1] && square < squares[i - 1])
+                return false;
+
+            if (Pieces.typeOf(codes[i]) == Pieces.PAWN && (square < 8 || square >= 56))
+                return false;
+
+            placed |= bit;
+            this.board.putPiece(codes[i], square);
+        }
+
+        int side = remaining;
+
+        this.board.setSideToMove(side);
+
+        // the side that just moved cannot be left in check
+        return this.board.isSquareAttacked(this.board.getKingSquare(side ^ 1), side) == false;
+    }
+
+    // result of a move that leaves the table, NOT_FOUND if it stays in it
+    private int externalResult(int[] codes, int move) throws IOException {
+
+        if (Move.isCapture(move) == false && Move.isPromotion(move) == false)
+            return Tablebase.NOT_FOUND;
+
+        this.board.makeMove(move);
+
+        try {
+
+            if (Material.isInsufficient(this.board))
+                return 0;
+
+            int result = this.tablebase.probe(this.board);
+
+            if (result == Tablebase.NOT_FOUND)
+                throw new IOException("Missing table " + Material.signatureOf(this.board, false) + " (or its mirror)");
+
+            return result;
+        } finally {
+
+            this.board.unmakeMove();
+        }
+    }
+
+    // compresses the results block by block and writes the file, see class TablebaseFile
+    private static void write(Path path, int[] codes, byte[] results) throws IOException {
+
+        int blockCount = results.length / BLOCK_SIZE;
+
+        byte[][] blocks = new byte[blockCount][];
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        byte[] output = new byte[BLOCK_SIZE * 2];
+
+        for (int block = 0; block < blockCount; block++) {
+
+            deflater.reset();
+            deflater.setInput(results, block * BLOCK_SIZE, BLOCK_SIZE);
+            deflater.finish();
+
+            int length = deflater.deflate(output);
+
+            blocks[block] = Arrays.copyOf(output, length);
+        }
+
+        deflater.end();
+
+        long offset = 16 + codes.length + (blockCount + 1L) * Long.BYTES;
+
+        ByteBuffer header = ByteBuffer.allocate((int) offset);
+
+        header.putInt(TablebaseFile.MAGIC);
+        header.putShort(TablebaseFile.VERSION);
+        header.putShort((short) codes.length);
+        header.putInt(BLOCK_SIZE);
+        header.putInt(blockCount);
+
+        for (int code : codes) {
+            header.put((byte) code);
+        }
+
+        for (byte[] block : blocks) {
+
+            header.putLong(offset);
+            offset += block.length;
+        }
+
+        header.putLong(offset);
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            writeAll(channel, header);
+
+            for (byte[] block : blocks) {
+                writeAll(channel, ByteBuffer.wrap(block));
+            }
+        }
+    }
+
+    private static void writeAll(FileChannel channel, ByteBuffer buffer) throws IOException {
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Command line entry point, generates tables in order, e.g.
+     * java tablebase.TablebaseGenerator tables KQvK KRvK KPvK
+     */
+    public static void main(String[] args) throws IOException {
+
+        if (args.length < 2) {
+
+            System.out.println("Usage: java tablebase.TablebaseGenerator <directory> <signature>...");
+            return;
+        }
+
+        Path directory = Paths.get(args[0]);
+        Files.createDirectories(directory);
+
+        try (Tablebase tablebase = new Tablebase(directory, Tablebase.DEFAULT_CACHE_BLOCKS)) {
+
+            TablebaseGenerator generator = new TablebaseGenerator(tablebase);
+
+            for (int i = 1; i < args.length; i++) {
+
+                long start = System.nanoTime();
+
+                Path path = generator.generate(directory, args[i]);
+                tablebase.addFile(path);
+
+                System.out.println(path + " written in " + (System.nanoTime() - start) / 1000000 + " ms, "
+                        + Files.size(path) + " bytes");
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package tablebase;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class TablebaseMetrics, part of package tablebase
+ * Counters of the probes of a tablebase, updated by all probing threads without locks
+ */
+public class TablebaseMetrics {
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder found = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void recordProbe(boolean wasFound, long nanos) {
+
+        this.probes.increment();
+
+        if (wasFound)
+            this.found.increment();
+
+        this.totalNanos.add(nanos);
+
+        if (nanos > this.maxNanos.get())
+            this.maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void recordCacheHit() {
+
+        this.cacheHits.increment();
+    }
+
+    void recordCacheMiss() {
+
+        this.cacheMisses.increment();
+    }
+
+    /**
+     * @return the probes of positions with a table and without one
+     */
+    public long getProbes() {
+
+        return this.probes.sum();
+    }
+
+    /**
+     * @return the probes that returned a result
+     */
+    public long getFound() {
+
+        return this.found.sum();
+    }
+
+    public long getCacheHits() {
+
+        return this.cacheHits.sum();
+    }
+
+    public long getCacheMisses() {
+
+        return this.cacheMisses.sum();
+    }
+
+    /**
+     * @return the share of block reads served by the cache, between 0 and 1
+     */
+    public double getHitRate() {
+
+        long hits = this.cacheHits.sum();
+        long total = hits + this.cacheMisses.sum();
+
+        return (total == 0) ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * @return the mean time of a probe in nanoseconds
+     */
+    public long getMeanNanos() {
+
+        return this.totalNanos.sum() / Math.max(1, this.probes.sum());
+    }
+
+    /**
+     * @return the time of the slowest probe in nanoseconds
+     */
+    public long getMaxNanos() {
+
+        return this.maxNanos.get();
+    }
+
+    /**
+     * Sets every counter back to 0, probes running at the same time may be partly counted
+     */
+    public void reset() {
+
+        this.probes.reset();
+        this.found.reset();
+        this.cacheHits.reset();
+        this.cacheMisses.reset();
+        this.totalNanos.reset();
+        this.maxNanos.set(0);
+    }
+
+    @Override
+    public String toString() {
+
+        return "probes " + this.getProbes() + ", found " + this.getFound() + ", cache hit rate "
+                + String.format("%.1f", this.getHitRate() * 100) + "%, mean " + this.getMeanNanos() + " ns, max "
+                + this.getMaxNanos() + " ns";
+    }
+}
@@ -0,0 +1,500 @@
+package uci;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import board.Board;
+import board.Move;
+import board.Pieces;
+import book.OpeningBook;
+import engine.ParallelSearch;
+import engine.SearchLimits;
+import engine.SearchResult;
+import engine.TranspositionTable;
+import exceptions.InvalidFenException;
+import tablebase.Tablebase;
+
+/**
+ * Class UciEngine, part of package uci
+ * Plays through the Universal Chess Interface, the text protocol of chess GUIs and tournament managers
+ * commands are read on the calling thread while searches run on their own thread, so stop,
+ * isready and quit are answered at once, every completed iteration is reported with an info line
+ * understood commands: uci, isready, setoption, ucinewgame, position, go, stop, quit
+ */
+public class UciEngine {
+
+    public static final String NAME = "Console Chess";
+    public static final String AUTHOR = "ThodBaniokos";
+
+    // time kept back from every move for the GUI and the process to react
+    public static final long DEFAULT_MOVE_OVERHEAD = 30;
+
+    // moves the remaining time is shared between when the GUI does not say
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    private static final int MAX_THREADS = 256;
+    private static final int MAX_HASH_MB = 4096;
+
+    private final PrintStream out;
+
+    private final Board board = new Board();
+
+    // a position command is played out here first, the board only takes it once every move was legal
+    private final Board pendingBoard = new Board();
+
+    private final TranspositionTable table = new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB);
+
+    private final ParallelSearch engine;
+
+    private final ExecutorService searchThread = Executors.newSingleThreadExecutor(runnable -> {
+
+        Thread thread = new Thread(runnable, "uci-search");
+        thread.setDaemon(true);
+
+        return thread;
+    });
+
+    // the running or last search
+    private Future<?> search;
+
+    // set by stop and quit, an infinite search reports its move only once it is set
+    private volatile boolean stopRequested;
+
+    private long moveOverhead = DEFAULT_MOVE_OVERHEAD;
+
+    private OpeningBook openingBook;
+
+    private Tablebase tablebase;
+
+    private final Random bookRandom = new Random();
+
+    /**
+     * @param out stream the protocol answers are written to
+     */
+    public UciEngine(PrintStream out) {
+
+        this.out = out;
+        this.engine = new ParallelSearch(1, this.table);
+        this.engine.setListener(this::sendInfo);
+    }
+
+    /**
+     * Reads and answers commands until quit or the end of the input
+     *
+     * @param in protocol commands, one per line
+     * @throws IOException if the input cannot be read
+     */
+    public void run(BufferedReader in) throws IOException {
+
+        String line;
+
+        while ((line = in.readLine()) != null) {
+
+            if (this.handle(line.trim()) == false)
+                break;
+        }
+
+        this.stopSearch();
+        this.waitForSearch();
+
+        this.searchThread.shutdown();
+        this.engine.shutdown();
+    }
+
+    /**
+     * Answers one command
+     *
+     * @param command command line without surrounding blanks
+     * @return false once the engine has to quit
+     */
+    public boolean handle(String command) {
+
+        String[] tokens = command.split("\\s+");
+
+        switch (tokens[0]) {
+
+            case "uci":
+                this.send("id name " + NAME);
+                this.send("id author " + AUTHOR);
+                this.send("option name Hash type spin default " + TranspositionTable.DEFAULT_SIZE_MB + " min 1 max "
+                        + MAX_HASH_MB);
+                this.send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                this.send("option name Move Overhead type spin default " + DEFAULT_MOVE_OVERHEAD + " min 0 max 5000");
+                this.send("option name BookFile type string default <empty>");
+                this.send("option name TablebasePath type string default <empty>");
+                this.send("uciok");
+                break;
+            case "isready":
+                this.send("readyok");
+                break;
+            case "setoption":
+                this.waitForSearch();
+                this.setOption(command);
+                break;
+            case "ucinewgame":
+                this.waitForSearch();
+                this.table.clear();
+                break;
+            case "position":
+                this.waitForSearch();
+                this.setPosition(tokens);
+                break;
+            case "go":
+                this.waitForSearch();
+                this.go(tokens);
+                break;
+            case "stop":
+                this.stopSearch();
+                break;
+            case "quit":
+                return false;
+            default:
+                // unknown commands are ignored as the protocol asks
+                break;
+        }
+
+        return true;
+    }
+
+    /**
+     * position [startpos | fen <fen>] [moves <move>...]
+     * an invalid FEN or an illegal move keeps the previous position
+     */
+    private void setPosition(String[] tokens) {
+
+        int index = 1;
+
+        try {
+
+            if (tokens.length > 1 && tokens[1].equals("fen")) {
+
+                StringBuilder fen = new StringBuilder();
+
+                for (index = 2; index < tokens.length && tokens[index].equals("moves") == false; index++) {
+                    fen.append(tokens[index]).append(' ');
+                }
+
+                this.pendingBoard.loadFen(fen);
+            } else {
+
+                this.pendingBoard.init();
+                index = 2;
+            }
+        } catch (InvalidFenException fenException) {
+
+            this.send("info string " + fenException.getMessage().trim());
+            return;
+        }
+
+        if (index < tokens.length && tokens[index].equals("moves")) {
+
+            for (index++; index < tokens.length; index++) {
+
+                int move = parseMove(this.pendingBoard, tokens[index]);
+
+                if (move == Move.NONE) {
+
+                    this.send("info string illegal move " + tokens[index]);
+                    return;
+                }
+
+                this.pendingBoard.makeMove(move);
+            }
+        }
+
+        this.board.copyFrom(this.pendingBoard);
+    }
+
+    /**
+     * go [wtime <ms>] [btime <ms>] [winc <ms>] [binc <ms>] [movestogo <n>] [movetime <ms>]
+     * [depth <n>] [nodes <n>] [infinite]
+     */
+    private void go(String[] tokens) {
+
+        long[] clock = new long[2];
+        long[] increment = new long[2];
+        long movesToGo = 0, moveTime = 0, nodes = 0;
+        int depth = 0;
+        boolean infinite = false;
+
+        for (int i = 1; i < tokens.length; i++) {
+
+            String name = tokens[i];
+            long value = (i + 1 < tokens.length) ? parseNumber(tokens[i + 1]) : 0;
+
+            switch (name) {
+
+                case "wtime":
+                    clock[Pieces.WHITE] = value;
+                    break;
+                case "btime":
+                    clock[Pieces.BLACK] = value;
+                    break;
+                case "winc":
+                    increment[Pieces.WHITE] = value;
+                    break;
+                case "binc":
+                    increment[Pieces.BLACK] = value;
+                    break;
+                case "movestogo":
+                    movesToGo = value;
+                    break;
+                case "movetime":
+                    moveTime = value;
+                    break;
+                case "depth":
+                    depth = (int) value;
+                    break;
+                case "nodes":
+                    nodes = value;
+                    break;
+                case "infinite":
+                    infinite = true;
+                    continue;
+                default:
+                    continue;
+            }
+
+            i++;
+        }
+
+        int side = this.board.getSideToMove();
+
+        if (infinite == false && moveTime == 0 && clock[side] > 0)
+            moveTime = this.allocateTime(clock[side], increment[side], movesToGo);
+        else if (moveTime > 0)
+            moveTime = Math.max(1, moveTime - this.moveOverhead);
+
+        SearchLimits limits = new SearchLimits(depth, infinite ? 0 : moveTime, infinite ? 0 : nodes);
+
+        boolean waitForStop = infinite;
+
+        this.stopRequested = false;
+
+        Board position = new Board();
+        position.copyFrom(this.board);
+
+        this.search = this.searchThread.submit(() -> this.think(position, limits, waitForStop));
+    }
+
+    /**
+     * Shares the remaining time between the moves still to play, the increment is mostly spent
+     *
+     * @return the time of this move in milliseconds, at least 1
+     */
+    private long allocateTime(long remaining, long increment, long movesToGo) {
+
+        long moves = (movesToGo > 0) ? movesToGo : DEFAULT_MOVES_TO_GO;
+        long budget = (remaining / moves) + (increment * 3 / 4);
+
+        // never spend more than half of the clock on one move
+        budget = Math.min(budget, remaining / 2);
+
+        return Math.max(1, budget - this.moveOverhead);
+    }
+
+    // runs on the search thread
+    private void think(Board position, SearchLimits limits, boolean waitForStop) {
+
+        int bestMove = (this.openingBook != null && waitForStop == false) ? this.openingBook.probe(position, this.bookRandom)
+                : Move.NONE;
+
+        if (bestMove == Move.NONE) {
+
+            SearchResult result = this.engine.search(position, limits);
+
+            bestMove = result.bestMove;
+        }
+
+        // an infinite search reports its move only when the GUI asks for it
+        synchronized (this) {
+
+            while (waitForStop == true && this.stopRequested == false) {
+
+                try {
+
+                    this.wait();
+                } catch (InterruptedException interrupted) {
+
+                    return;
+                }
+            }
+        }
+
+        this.send("bestmove " + ((bestMove == Move.NONE) ? "0000" : Move.toString(bestMove)));
+    }
+
+    // called by the search thread after every completed iteration
+    private void sendInfo(SearchResult result) {
+
+        // a stop arriving while the search was starting up could have been cleared by it
+        if (this.stopRequested == true)
+            this.engine.stop();
+
+        StringBuilder info = new StringBuilder(256);
+
+        info.append("info depth ").append(result.depth).append(" score ");
+
+        if (result.isMateScore())
+            info.append("mate ").append(result.mateInMoves());
+        else
+            info.append("cp ").append(result.score);
+
+        info.append(" nodes ").append(result.nodes).append(" nps ").append(result.nodesPerSecond());
+        info.append(" time ").append(result.elapsedNanos / 1_000_000).append(" hashfull ").append(this.table.hashfull());
+        info.append(" pv ").append(result.principalVariationString());
+
+        this.send(info.toString());
+    }
+
+    private void stopSearch() {
+
+        this.stopRequested = true;
+        this.engine.stop();
+
+        synchronized (this) {
+            this.notifyAll();
+        }
+    }
+
+    // the GUI sends stop before a new command, a finite search is also left to finish on its own
+    private void waitForSearch() {
+
+        if (this.search == null)
+            return;
+
+        try {
+
+            this.search.get();
+        } catch (InterruptedException interrupted) {
+
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException failure) {
+
+            this.send("info string search failed: " + failure.getCause());
+        }
+
+        this.search = null;
+    }
+
+    /**
+     * setoption name <name> [value <value>], names may hold spaces
+     */
+    private void setOption(String command) {
+
+        int nameStart = command.indexOf("name ");
+
+        if (nameStart == -1)
+            return;
+
+        int valueStart = command.indexOf(" value ", nameStart);
+
+        String name = ((valueStart == -1) ? command.substring(nameStart + 5) : command.substring(nameStart + 5, valueStart))
+                .trim();
+        String value = (valueStart == -1) ? "" : command.substring(valueStart + 7).trim();
+
+        try {
+
+            switch (name.toLowerCase()) {
+
+                case "hash":
+                    this.table.resize(Math.max(1, Math.min(MAX_HASH_MB, Integer.parseInt(value))));
+                    break;
+                case "threads":
+                    this.engine.setThreads(Math.max(1, Math.min(MAX_THREADS, Integer.parseInt(value))));
+                    this.engine.setListener(this::sendInfo);
+                    break;
+                case "move overhead":
+                    this.moveOverhead = Math.max(0, Long.parseLong(value));
+                    break;
+                case "bookfile":
+                    if (this.openingBook != null)
+                        this.openingBook.close();
+
+                    this.openingBook = (value.isEmpty() || value.equals("<empty>")) ? null
+                            : new OpeningBook(Paths.get(value));
+                    break;
+                case "tablebasepath":
+                    if (this.tablebase != null)
+                        this.tablebase.close();
+
+                    this.tablebase = (value.isEmpty() || value.equals("<empty>")) ? null
+                            : new Tablebase(Paths.get(value), Tablebase.DEFAULT_CACHE_BLOCKS);
+                    this.engine.setTablebase(this.tablebase);
+                    break;
+                default:
+                    this.send("info string unknown option " + name);
+                    break;
+            }
+        } catch (NumberFormatException formatException) {
+
+            this.send("info string invalid value " + value + " for option " + name);
+        } catch (IOException ioException) {
+
+            this.send("info string cannot open " + value + ": " + ioException.getMessage());
+        }
+    }
+
+    /**
+     * @param board position the move is played in
+     * @param text  move in coordinate notation, e.g. "e2e4" or "e7e8q"
+     * @return the legal move, Move.NONE if the text is not a legal move
+     */
+    public static int parseMove(Board board, String text) {
+
+        if (text.length() < 4 || text.length() > 5)
+            return Move.NONE;
+
+        int from = parseSquare(text.charAt(0), text.charAt(1));
+        int to = parseSquare(text.charAt(2), text.charAt(3));
+
+        if (from == -1 || to == -1)
+            return Move.NONE;
+
+        int promotionType = (text.length() == 5) ? "pnbrqk".indexOf(Character.toLowerCase(text.charAt(4))) : Pieces.QUEEN;
+
+        return board.findLegalMove(from, to, promotionType);
+    }
+
+    private static int parseSquare(char column, char row) {
+
+        if (column < 'a' || column > 'h' || row < '1' || row > '8')
+            return -1;
+
+        return (row - '1') * 8 + (column - 'a');
+    }
+
+    private static long parseNumber(String text) {
+
+        try {
+
+            return Long.parseLong(text);
+        } catch (NumberFormatException formatException) {
+
+            return 0;
+        }
+    }
+
+    // answers come from the command and search threads, one line at a time
+    private synchronized void send(String line) {
+
+        this.out.println(line);
+        this.out.flush();
+    }
+
+    /**
+     * Command line entry point, java uci.UciEngine
+     */
+    public static void main(String[] args) throws IOException {
+
+        new UciEngine(System.out).run(new BufferedReader(new InputStreamReader(System.in)));
+    }
+}